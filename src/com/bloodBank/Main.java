@@ -1,7 +1,7 @@
 // File: src/com/bloodBank/Main.java
 package com.bloodBank;
 
-import com.bloodBank.model.BloodBankModel;
+import com.bloodBank.model.AsyncBloodBankModel;
 import com.bloodBank.view.DashboardView; // CHANGED
 import com.bloodBank.controller.DashboardController; // CHANGED
 
@@ -12,18 +12,24 @@ public class Main {
     public static void main(String[] args) {
         SwingUtilities.invokeLater(new Runnable() {
             public void run() {
-                // 1. Create the Model (loads data)
-                BloodBankModel model = new BloodBankModel();
-                
-                // 2. Create the new Dashboard View
+                // 1. Create the new Dashboard View (buttons stay disabled until the data is loaded)
                 DashboardView view = new DashboardView();
-                
-                // 3. Create the new Dashboard Controller
-                new DashboardController(model, view); // CHANGED
-                
-                // 4. Make the application visible
+                view.setActionsEnabled(false);
                 view.setVisible(true);
+
+                // 2. Load the Model on the I/O thread, then wire up the Controller back on the EDT
+                AsyncBloodBankModel.load().whenCompleteAsync((model, error) -> {
+                    if (error != null) {
+                        view.showErrorMessage("Could not load blood bank data: " + error.getMessage());
+                        System.exit(1);
+                    }
+                    new DashboardController(model, view); // CHANGED
+                    view.setActionsEnabled(true);
+
+                    // 3. Mark units that expired while the app was closed, in the background
+                    model.reconcileExpiredUnits();
+                }, SwingUtilities::invokeLater);
             }
         });
     }
-}
\ No newline at end of file
+}
@@ -1,22 +1,23 @@
 // File: src/com/bloodBank/controller/AddDonorController.java
 package com.bloodBank.controller;
 
-import com.bloodBank.model.BloodBankModel;
+import com.bloodBank.model.AsyncBloodBankModel;
+import com.bloodBank.model.Dates;
 import com.bloodBank.model.Donor;
 import com.bloodBank.view.AddDonorView;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
+import javax.swing.SwingUtilities;
 
 public class AddDonorController {
 
-    private BloodBankModel model;
+    private AsyncBloodBankModel model;
     private AddDonorView view;
     private Runnable onAddSuccessCallback;
 
-    public AddDonorController(BloodBankModel model, AddDonorView view, Runnable onAddSuccessCallback) {
+    public AddDonorController(AsyncBloodBankModel model, AddDonorView view, Runnable onAddSuccessCallback) {
         this.model = model;
         this.view = view;
         this.onAddSuccessCallback = onAddSuccessCallback;
@@ -50,7 +51,7 @@ public class AddDonorController {
                 }
 
                 // Date Input
-                LocalDate dob = parseDate(dobString);
+                LocalDate dob = Dates.parseOrNull(dobString);
                 if (dob == null) {
                     view.showErrorMessage("Invalid Date Format. Please use YYYY-MM-DD.");
                     return; // Stop execution
@@ -62,31 +63,30 @@ public class AddDonorController {
                         bloodGroup, city, fullAddress);
 
                 // --- MODIFIED LINES ---
-                // 1. Capture the status message from the model
-                String successMessage = model.addDonor(newDonor);
-                
-                // 2. Show the message from the model (e.g., "Auto-issued to...")
-                view.showSuccessMessage(successMessage);
+                // 1. Save on the I/O thread; the rest runs back on the EDT when it is done
+                view.setAddEnabled(false); // Until the model answers
+                model.addDonor(newDonor).whenCompleteAsync((successMessage, error) -> {
+                    view.setAddEnabled(true);
+                    if (error != null) {
+                        view.showErrorMessage("An error occurred: " + error.getMessage());
+                        error.printStackTrace();
+                        return;
+                    }
+
+                    // 2. Show the message from the model (e.g., "Auto-issued to...")
+                    view.showSuccessMessage(successMessage);
+                    view.dispose();
+
+                    // Run the callback function to tell the dashboard to refresh
+                    onAddSuccessCallback.run();
+                }, SwingUtilities::invokeLater);
                 // --- END OF MODIFICATIONS ---
 
-                view.dispose();
-
-                // Run the callback function to tell the dashboard to refresh
-                onAddSuccessCallback.run();
-
             } catch (Exception ex) {
+                view.setAddEnabled(true);
                 view.showErrorMessage("An error occurred: ".trim() + ex.getMessage());
                 ex.printStackTrace();
             }
         }
-
-        // Funtion to parse date
-        private LocalDate parseDate(String dateString) {
-            try {
-                return LocalDate.parse(dateString);
-            } catch (DateTimeParseException ex) {
-                return null; // If Failed
-            }
-        }
     }
 }
\ No newline at end of file
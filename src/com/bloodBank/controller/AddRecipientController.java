@@ -1,22 +1,23 @@
 // File: src/com/bloodBank/controller/AddRecipientController.java
 package com.bloodBank.controller;
 
-import com.bloodBank.model.BloodBankModel;
+import com.bloodBank.model.AsyncBloodBankModel;
+import com.bloodBank.model.Dates;
 import com.bloodBank.model.Recipient;
 import com.bloodBank.view.AddRecipientView;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
+import javax.swing.SwingUtilities;
 
 public class AddRecipientController {
 
-    private BloodBankModel model;
+    private AsyncBloodBankModel model;
     private AddRecipientView view;
     private Runnable onAddSuccessCallback;
 
-    public AddRecipientController(BloodBankModel model, AddRecipientView view, Runnable onAddSuccessCallback) {
+    public AddRecipientController(AsyncBloodBankModel model, AddRecipientView view, Runnable onAddSuccessCallback) {
         this.model = model;
         this.view = view;
         this.onAddSuccessCallback = onAddSuccessCallback;
@@ -52,7 +53,7 @@ public class AddRecipientController {
                 }
 
                 // 3. Parse Date Input
-                LocalDate dob = parseDate(dobString);
+                LocalDate dob = Dates.parseOrNull(dobString);
                 if (dob == null) {
                     view.showErrorMessage("Invalid Date Format. Please use YYYY-MM-DD.");
                     return; // Stop execution
@@ -66,31 +67,30 @@ public class AddRecipientController {
                         reasonForTransfusion);
 
                 // --- MODIFIED LINES ---
-                // 5. Call the transaction method and capture the message
-                String resultMessage = model.issueOneUnitToRecipient(newRecipient);
-                
-                // 6. Give feedback (Success, or Waiting List) and close
-                view.showSuccessMessage(resultMessage);
-                // --- END OF MODIFICATIONS ---
-                
-                view.dispose();
+                // 5. Run the transaction on the I/O thread and handle the message on the EDT
+                view.setAddEnabled(false); // Until the model answers
+                model.issueOneUnitToRecipient(newRecipient).whenCompleteAsync((resultMessage, error) -> {
+                    view.setAddEnabled(true);
+                    if (error != null) {
+                        view.showErrorMessage("An error occurred: " + error.getMessage());
+                        error.printStackTrace();
+                        return;
+                    }
+
+                    // 6. Give feedback (Success, or Waiting List) and close
+                    view.showSuccessMessage(resultMessage);
+                    view.dispose();
 
-                // 7. Run the callback function to tell the dashboard to refresh
-                onAddSuccessCallback.run();
+                    // 7. Run the callback function to tell the dashboard to refresh
+                    onAddSuccessCallback.run();
+                }, SwingUtilities::invokeLater);
+                // --- END OF MODIFICATIONS ---
 
             } catch (Exception ex) {
+                view.setAddEnabled(true);
                 view.showErrorMessage("An error occurred: ".trim() + ex.getMessage());
                 ex.printStackTrace();
             }
         }
-
-        // Funtion to parse date
-        private LocalDate parseDate(String dateString) {
-            try {
-                return LocalDate.parse(dateString);
-            } catch (DateTimeParseException ex) {
-                return null; // If Failed
-            }
-        }
     }
 }
\ No newline at end of file
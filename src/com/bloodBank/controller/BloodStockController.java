@@ -2,21 +2,18 @@
 package com.bloodBank.controller;
 
 import com.bloodBank.view.BloodStockView;
+import com.bloodBank.view.RecordTableModel;
 import com.bloodBank.model.BloodUnit; // <-- CHANGED: Import BloodUnit
-import java.util.ArrayList; // <-- CHANGED: Import ArrayList (removed Map)
+import java.util.List;
 
 public class BloodStockController {
 
     /**
      * This controller is very simple. It doesn't need to listen for any events.
-     * It just takes the data (now a list of units) and passes it to the view.
+     * It shows the active units plus the archived history, which the view pages in through history.
      */
-    
-    // --- MODIFICATION: Changed Map<String, Integer> to ArrayList<BloodUnit> ---
-    public BloodStockController(BloodStockView view, ArrayList<BloodUnit> unitData) {
-        
-        // Immediately tell the view to display the data
-        // --- MODIFICATION: Pass the unitData list to the view ---
-        view.displayStock(unitData);
+    public BloodStockController(BloodStockView view, List<BloodUnit> unitData, int historyCount,
+                                RecordTableModel.PageLoader<BloodUnit> history) {
+        view.displayStock(unitData, historyCount, history);
     }
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 // File: src/com/bloodBank/controller/DashboardController.java
 package com.bloodBank.controller;
 
-import com.bloodBank.model.BloodBankModel;
+import com.bloodBank.model.AsyncBloodBankModel;
+import com.bloodBank.model.BloodGroups;
 import com.bloodBank.model.BloodUnit;
 import com.bloodBank.model.Donor;
 import com.bloodBank.model.Recipient;
+import com.bloodBank.model.ModelChangeEvent;
 import com.bloodBank.view.DashboardView;
 import com.bloodBank.view.DonorInfoView;
 import com.bloodBank.view.AddDonorView;
@@ -12,20 +14,34 @@ import com.bloodBank.view.BloodStockView;
 import com.bloodBank.view.AddRecipientView;
 import com.bloodBank.view.RecipientInfoView;
 import com.bloodBank.view.RemoveByIdView; // <-- NEW: Import the custom remove view
+import com.bloodBank.view.RecordTableModel;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
+import javax.swing.SwingUtilities;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class DashboardController {
 
-    private BloodBankModel model;
+    private AsyncBloodBankModel model;
     private DashboardView view;
+    // Model changes, delivered on the EDT once per frame to the dashboard and any open table
+    private final ModelChangeDispatcher changes = new ModelChangeDispatcher();
+    private final int[] stockCounts = new int[BloodGroups.COUNT];
+    private final int[] waitingCounts = new int[BloodGroups.COUNT];
 
-    public DashboardController(BloodBankModel model, DashboardView view) {
+    public DashboardController(AsyncBloodBankModel model, DashboardView view) {
         this.model = model;
         this.view = view;
 
+        // --- Live Stock Levels ---
+        model.addChangeListener(changes);
+        changes.subscribe().deliverTo(batch -> refreshStockLevels());
+        refreshStockLevels();
+
         // --- Donor Listeners ---
         this.view.addAddDonorListener(new AddDonorButtonListener());
         this.view.addRemoveDonorListener(new RemoveDonorButtonListener());
@@ -46,12 +62,7 @@ public class DashboardController {
         @Override
         public void actionPerformed(ActionEvent e) {
             AddDonorView addView = new AddDonorView(view);
-            new AddDonorController(model, addView, new Runnable() {
-                @Override
-                public void run() {
-                    System.out.println("Donor added, callback executed.");
-                }
-            });
+            new AddDonorController(model, addView, DashboardController.this::refreshStockLevels);
             addView.setVisible(true);
         }
     }
@@ -70,14 +81,16 @@ public class DashboardController {
 
                 try {
                     int id = Integer.parseInt(idString.trim());
-                    boolean success = model.deleteDonorById(id);
-
-                    if (success) {
-                        view.showInfoMessage("Donor with ID " + id + " has been removed.");
-                        // You would refresh your main donor table here
-                    } else {
-                        view.showErrorMessage("No donor found with ID " + id + ".");
-                    }
+                    model.deleteDonorById(id).whenCompleteAsync((success, error) -> {
+                        if (error != null) {
+                            view.showErrorMessage("Could not remove donor: " + error.getMessage());
+                        } else if (success) {
+                            view.showInfoMessage("Donor with ID " + id + " has been removed.");
+                            // You would refresh your main donor table here
+                        } else {
+                            view.showErrorMessage("No donor found with ID " + id + ".");
+                        }
+                    }, SwingUtilities::invokeLater);
                 } catch (NumberFormatException ex) {
                     view.showErrorMessage("Invalid ID. Please enter a number.");
                 }
@@ -89,10 +102,30 @@ public class DashboardController {
     class ViewAllDonorsListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            ArrayList<Donor> allDonors = model.getDonors();
-            DonorInfoView infoView = new DonorInfoView(view);
-            infoView.displayDonors(allDonors);
-            infoView.setVisible(true);
+            ModelChangeDispatcher.Subscription updates = changes.subscribe(); // Before listing, so nothing is missed
+            model.getDonors().whenCompleteAsync((allDonors, error) -> {
+                if (error != null) {
+                    updates.cancel();
+                    view.showErrorMessage("Could not load donors: " + error.getMessage());
+                    return;
+                }
+                DonorInfoView infoView = new DonorInfoView(view);
+                infoView.displayDonors(allDonors);
+                Runnable showAll = () -> model.getDonors().thenAcceptAsync(donors -> {
+                    if (infoView.getSearchText().isEmpty()) { // Not filtered again meanwhile
+                        infoView.displayDonors(donors);
+                    }
+                }, SwingUtilities::invokeLater);
+                LiveTable<Donor> live = new LiveTable<>(infoView.getTableModel(),
+                        ModelChangeEvent.Type.DONOR_ADDED, ModelChangeEvent.Type.DONOR_REMOVED, ModelChangeEvent::getDonor,
+                        showAll);
+                TypeAheadSearch<Donor> search = new TypeAheadSearch<>(model::searchDonors,
+                        infoView::displaySearchResults, showAll);
+                infoView.addSearchListener(search::queryChanged);
+                updates.deliverTo(batch -> applyChanges(batch, live, search));
+                infoView.setVisible(true); // Modal: returns once the dialog is closed
+                updates.cancel();
+            }, SwingUtilities::invokeLater);
         }
     }
 
@@ -101,10 +134,33 @@ public class DashboardController {
     class ViewStockButtonListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            BloodStockView stockView = new BloodStockView(view);
-            ArrayList<BloodUnit> allUnits = model.getBloodUnits();
-            new BloodStockController(stockView, allUnits);
-            stockView.setVisible(true);
+            ModelChangeDispatcher.Subscription updates = changes.subscribe(); // Before listing, so nothing is missed
+            model.listBloodUnits().whenCompleteAsync((units, error) -> {
+                if (error != null) {
+                    updates.cancel();
+                    view.showErrorMessage("Could not load blood stock: " + error.getMessage());
+                    return;
+                }
+                BloodStockView stockView = new BloodStockView(view);
+                stockView.setExpiryWarningDays(model.getExpiryWarningDays());
+                RecordTableModel.PageLoader<BloodUnit> history =
+                        (from, count, onLoaded) -> loadPage(model.getUnitHistory(from, count), onLoaded);
+                new BloodStockController(stockView, units.getActive(), units.getHistoryCount(), history);
+                LiveTable<BloodUnit> live = new LiveTable<>(stockView.getUnitTableModel(),
+                        ModelChangeEvent.Type.UNIT_ADDED, ModelChangeEvent.Type.UNIT_REMOVED, ModelChangeEvent::getUnit,
+                        () -> model.listBloodUnits().thenAcceptAsync(
+                                reloaded -> stockView.displayStock(reloaded.getActive(), reloaded.getHistoryCount(), history),
+                                SwingUtilities::invokeLater));
+                updates.deliverTo(batch -> {
+                    live.apply(batch);
+                    if (affectsUnits(batch)) {
+                        model.copyStockCounts(stockCounts);
+                        stockView.displayStockCounts(stockCounts);
+                    }
+                });
+                stockView.setVisible(true); // Modal: returns once the dialog is closed
+                updates.cancel();
+            }, SwingUtilities::invokeLater);
         }
     }
 
@@ -114,12 +170,7 @@ public class DashboardController {
         @Override
         public void actionPerformed(ActionEvent e) {
             AddRecipientView addView = new AddRecipientView(view);
-            new AddRecipientController(model, addView, new Runnable() {
-                @Override
-                public void run() {
-                    System.out.println("Recipient added, callback executed.");
-                }
-            });
+            new AddRecipientController(model, addView, DashboardController.this::refreshStockLevels);
             addView.setVisible(true);
         }
     }
@@ -138,14 +189,16 @@ public class DashboardController {
 
                 try {
                     int id = Integer.parseInt(idString.trim());
-                    boolean success = model.deleteRecipientById(id);
-
-                    if (success) {
-                        view.showInfoMessage("Recipient with ID " + id + " has been removed.");
-                        // You would refresh your main recipient table here
-                    } else {
-                        view.showErrorMessage("No recipient found with ID " + id + ".");
-                    }
+                    model.deleteRecipientById(id).whenCompleteAsync((success, error) -> {
+                        if (error != null) {
+                            view.showErrorMessage("Could not remove recipient: " + error.getMessage());
+                        } else if (success) {
+                            view.showInfoMessage("Recipient with ID " + id + " has been removed.");
+                            // You would refresh your main recipient table here
+                        } else {
+                            view.showErrorMessage("No recipient found with ID " + id + ".");
+                        }
+                    }, SwingUtilities::invokeLater);
                 } catch (NumberFormatException ex) {
                     view.showErrorMessage("Invalid ID. Please enter a number.");
                 }
@@ -157,10 +210,71 @@ public class DashboardController {
     class ViewAllRecipientsListener implements ActionListener {
         @Override
         public void actionPerformed(ActionEvent e) {
-            ArrayList<Recipient> allRecipients = model.getRecipients();
-            RecipientInfoView infoView = new RecipientInfoView(view);
-            infoView.displayRecipients(allRecipients);
-            infoView.setVisible(true);
+            ModelChangeDispatcher.Subscription updates = changes.subscribe(); // Before listing, so nothing is missed
+            model.listRecipients().whenCompleteAsync((recipients, error) -> {
+                if (error != null) {
+                    updates.cancel();
+                    view.showErrorMessage("Could not load recipients: " + error.getMessage());
+                    return;
+                }
+                RecipientInfoView infoView = new RecipientInfoView(view);
+                RecordTableModel.PageLoader<Recipient> history =
+                        (from, count, onLoaded) -> loadPage(model.getRecipientHistory(from, count), onLoaded);
+                infoView.displayRecipients(recipients.getActive(), recipients.getHistoryCount(), history);
+                Runnable showAll = () -> model.listRecipients().thenAcceptAsync(reloaded -> {
+                    if (infoView.getSearchText().isEmpty()) { // Not filtered again meanwhile
+                        infoView.displayRecipients(reloaded.getActive(), reloaded.getHistoryCount(), history);
+                    }
+                }, SwingUtilities::invokeLater);
+                LiveTable<Recipient> live = new LiveTable<>(infoView.getTableModel(),
+                        ModelChangeEvent.Type.RECIPIENT_ADDED, ModelChangeEvent.Type.RECIPIENT_REMOVED,
+                        ModelChangeEvent::getRecipient, showAll);
+                TypeAheadSearch<Recipient> search = new TypeAheadSearch<>(model::searchRecipients,
+                        infoView::displaySearchResults, showAll);
+                infoView.addSearchListener(search::queryChanged);
+                updates.deliverTo(batch -> applyChanges(batch, live, search));
+                infoView.setVisible(true); // Modal: returns once the dialog is closed
+                updates.cancel();
+            }, SwingUtilities::invokeLater);
         }
     }
-}
\ No newline at end of file
+
+    // --- Live Updates ---
+
+    // A filtered table is searched again rather than patched, so it keeps showing only matches
+    private static <T> void applyChanges(List<ModelChangeEvent> batch, LiveTable<T> live, TypeAheadSearch<T> search) {
+        if (search.isFiltering()) {
+            search.refresh();
+        } else {
+            live.apply(batch);
+        }
+    }
+
+    // Reads the maintained per-group counters; cheap enough to run after every batch
+    private void refreshStockLevels() {
+        model.copyStockCounts(stockCounts);
+        model.copyShortageCounts(waitingCounts);
+        view.showStockLevels(stockCounts, waitingCounts);
+    }
+
+    private static boolean affectsUnits(List<ModelChangeEvent> batch) {
+        for (ModelChangeEvent event : batch) {
+            if (event.affectsUnits()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Hands a history page to a table on the EDT; a page that fails to load is shown as empty
+    private <T> void loadPage(CompletableFuture<? extends List<T>> page, Consumer<List<T>> onLoaded) {
+        page.whenCompleteAsync((records, error) -> {
+            if (error != null) {
+                onLoaded.accept(Collections.<T>emptyList());
+                view.showErrorMessage("Could not load history: " + error.getMessage());
+            } else {
+                onLoaded.accept(records);
+            }
+        }, SwingUtilities::invokeLater);
+    }
+}
@@ -0,0 +1,69 @@
+// File: src/com/bloodBank/controller/LiveTable.java
+package com.bloodBank.controller;
+
+import com.bloodBank.model.ModelChangeEvent;
+import com.bloodBank.view.RecordTableModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Applies the model's change events to one open table of donors, recipients or units.
+ * Runs of additions go in as one insert; other changes touch only their own row.
+ * After a bulk import the table is reloaded instead.
+ */
+class LiveTable<T> {
+
+    private final RecordTableModel<T> table;
+    private final ModelChangeEvent.Type addedType;
+    private final ModelChangeEvent.Type removedType;
+    private final Function<ModelChangeEvent, T> recordOf; // The event's record, if it is one of this table's
+    private final Runnable reload;
+
+    /**
+     * @param recordOf e.g. ModelChangeEvent::getDonor.
+     * @param reload Lists the records again and shows them; run on the EDT after an import.
+     */
+    LiveTable(RecordTableModel<T> table, ModelChangeEvent.Type addedType, ModelChangeEvent.Type removedType,
+              Function<ModelChangeEvent, T> recordOf, Runnable reload) {
+        this.table = table;
+        this.addedType = addedType;
+        this.removedType = removedType;
+        this.recordOf = recordOf;
+        this.reload = reload;
+    }
+
+    void apply(List<ModelChangeEvent> batch) {
+        ArrayList<T> added = new ArrayList<>();
+        for (ModelChangeEvent event : batch) {
+            if (event.getType() == ModelChangeEvent.Type.RECORDS_IMPORTED) {
+                reload.run(); // The reloaded list includes everything in this batch
+                return;
+            }
+            T record = recordOf.apply(event);
+            if (event.getType() == addedType) {
+                added.add(record);
+                continue;
+            }
+            if (event.getType() != removedType && record == null) {
+                continue; // About another kind of record
+            }
+            // Keep the order: earlier additions go in before this change is applied
+            flush(added);
+            if (event.getType() == removedType) {
+                table.recordRemoved(event.getId());
+            } else {
+                table.recordChanged(record);
+            }
+        }
+        flush(added);
+    }
+
+    private void flush(ArrayList<T> added) {
+        if (!added.isEmpty()) {
+            table.recordsAdded(added);
+            added.clear();
+        }
+    }
+}
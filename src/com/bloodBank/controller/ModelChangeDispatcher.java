@@ -0,0 +1,103 @@
+// File: src/com/bloodBank/controller/ModelChangeDispatcher.java
+package com.bloodBank.controller;
+
+import com.bloodBank.model.ModelChangeEvent;
+import com.bloodBank.model.ModelChangeListener;
+
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Brings the model's change events to the Event Dispatch Thread.
+ *
+ * Events are queued on whatever thread made the change, and a single invokeLater drains
+ * the queue, so a burst of changes (e.g. a blood drive batch) reaches the views as one
+ * list, in one frame, instead of as one EDT task per change.
+ */
+public class ModelChangeDispatcher implements ModelChangeListener {
+
+    private final ConcurrentLinkedQueue<ModelChangeEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Receives the events on the EDT, from the moment it was created until cancel().
+     * Events that arrive before deliverTo() is called are kept and handed over then, so a
+     * view can subscribe before asking for its records and miss nothing in between.
+     */
+    public final class Subscription {
+
+        private Consumer<List<ModelChangeEvent>> handler;
+        private List<ModelChangeEvent> pending = new ArrayList<>();
+
+        private Subscription() {
+        }
+
+        /**
+         * Starts handing batches to handler, beginning with any events kept so far.
+         * Call on the EDT.
+         */
+        public void deliverTo(Consumer<List<ModelChangeEvent>> handler) {
+            this.handler = handler;
+            List<ModelChangeEvent> kept = pending;
+            pending = null;
+            if (!kept.isEmpty()) {
+                handler.accept(kept);
+            }
+        }
+
+        public void cancel() {
+            subscriptions.remove(this);
+        }
+
+        private void accept(List<ModelChangeEvent> batch) {
+            if (handler != null) {
+                handler.accept(batch);
+            } else {
+                pending.addAll(batch);
+            }
+        }
+    }
+
+    /**
+     * Call on the EDT.
+     */
+    public Subscription subscribe() {
+        Subscription subscription = new Subscription();
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    @Override
+    public void modelChanged(ModelChangeEvent event) {
+        queue.add(event);
+        if (drainScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::drain);
+        }
+    }
+
+    // Runs on the EDT: everything queued so far goes out as one batch
+    private void drain() {
+        drainScheduled.set(false); // Events added from here on schedule the next drain
+        List<ModelChangeEvent> batch = new ArrayList<>();
+        ModelChangeEvent event;
+        while ((event = queue.poll()) != null) {
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            try {
+                subscription.accept(batch);
+            } catch (RuntimeException e) {
+                System.out.println("Error applying model changes: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+// File: src/com/bloodBank/controller/TypeAheadSearch.java
+package com.bloodBank.controller;
+
+import javax.swing.SwingUtilities;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Filters an open table as the user types in its search field. Each edit asks the model's
+ * search index for matches; answers to older text are dropped, so fast typing never shows
+ * a stale result. Clearing the field shows every record again.
+ */
+class TypeAheadSearch<T> {
+
+    // Enough for any screen; a query this broad should be narrowed anyway
+    static final int MAX_MATCHES = 500;
+
+    private final BiFunction<String, Integer, CompletableFuture<List<T>>> search;
+    private final Consumer<List<T>> showMatches;
+    private final Runnable showAll;
+    private String query = ""; // The text whose matches are (or will be) shown; EDT only
+
+    /**
+     * @param search e.g. model::searchDonors.
+     * @param showMatches Shows the matches; run on the EDT.
+     * @param showAll Lists every record again and shows them; run on the EDT.
+     */
+    TypeAheadSearch(BiFunction<String, Integer, CompletableFuture<List<T>>> search,
+                    Consumer<List<T>> showMatches, Runnable showAll) {
+        this.search = search;
+        this.showMatches = showMatches;
+        this.showAll = showAll;
+    }
+
+    /**
+     * Call on the EDT with the new search text.
+     */
+    void queryChanged(String text) {
+        boolean wasFiltering = isFiltering();
+        query = text;
+        if (!isFiltering()) {
+            if (wasFiltering) {
+                showAll.run();
+            }
+            return;
+        }
+        refresh();
+    }
+
+    boolean isFiltering() {
+        return !query.isEmpty();
+    }
+
+    /**
+     * Searches again for the current text, e.g. after the records changed. Call on the EDT.
+     */
+    void refresh() {
+        String asked = query;
+        search.apply(asked, MAX_MATCHES).whenCompleteAsync((matches, error) -> {
+            if (!asked.equals(query)) {
+                return; // The text changed meanwhile; its own search is on the way
+            }
+            if (error != null) {
+                System.out.println("Error searching: " + error.getMessage());
+                return;
+            }
+            showMatches.accept(matches);
+        }, SwingUtilities::invokeLater);
+    }
+}
@@ -0,0 +1,24 @@
+// File: src/com/bloodBank/model/AllocationPolicy.java
+package com.bloodBank.model;
+
+import java.util.Comparator;
+
+/**
+ * Decides which in-stock unit of a blood group is issued next.
+ * The model keeps each group's stock in a priority structure sorted by
+ * issueOrder(), so picking a unit stays O(log n) as the unit table grows.
+ */
+public interface AllocationPolicy {
+
+    /** First Expiry, First Out: issue the unit closest to its expiry date. */
+    AllocationPolicy FEFO = new FefoAllocationPolicy();
+
+    /** First In, First Out: issue the unit that was donated first. */
+    AllocationPolicy FIFO = new FifoAllocationPolicy();
+
+    /**
+     * @return The order in which units are issued; the smallest unit goes first.
+     *         Ties are broken by unit ID.
+     */
+    Comparator<BloodUnit> issueOrder();
+}
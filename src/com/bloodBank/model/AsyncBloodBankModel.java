@@ -0,0 +1,205 @@
+// File: src/com/bloodBank/model/AsyncBloodBankModel.java
+package com.bloodBank.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous front for BloodBankModel, used by the Swing controllers.
+ * Every call runs on one dedicated I/O thread and returns a CompletableFuture, so
+ * loading, journaling and snapshot work never happen on the Event Dispatch Thread.
+ * Running everything on a single thread keeps one window's calls in the order they
+ * were made; the model itself may also be shared with other threads.
+ *
+ * Futures complete on the I/O thread; hand results to Swing with e.g.
+ * {@code future.whenCompleteAsync(handler, SwingUtilities::invokeLater)}.
+ * A failed call completes the future with the exception the model threw.
+ */
+public class AsyncBloodBankModel {
+
+    private final BloodBankModel model;
+    private final ExecutorService io;
+
+    private AsyncBloodBankModel(BloodBankModel model, ExecutorService io) {
+        this.model = model;
+        this.io = io;
+    }
+
+    /**
+     * Loads the data files on the I/O thread.
+     * @return A future that completes with the ready model.
+     */
+    public static CompletableFuture<AsyncBloodBankModel> load() {
+        ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "bloodbank-io");
+            t.setDaemon(true);
+            return t;
+        });
+        return submit(io, () -> new AsyncBloodBankModel(new BloodBankModel(), io));
+    }
+
+    // --- Donors ---
+
+    public CompletableFuture<List<Donor>> getDonors() {
+        return submit(model::getDonors);
+    }
+
+    /**
+     * @see BloodBankModel#searchDonors(String, int)
+     */
+    public CompletableFuture<List<Donor>> searchDonors(String query, int limit) {
+        return submit(() -> model.searchDonors(query, limit));
+    }
+
+    /**
+     * @see BloodBankModel#addDonor(Donor)
+     */
+    public CompletableFuture<String> addDonor(Donor donor) {
+        return submit(() -> model.addDonor(donor));
+    }
+
+    /**
+     * @see BloodBankModel#addDonors(Collection)
+     */
+    public CompletableFuture<ArrayList<DonorIntakeResult>> addDonors(Collection<Donor> donors) {
+        return submit(() -> model.addDonors(donors));
+    }
+
+    public CompletableFuture<Boolean> deleteDonorById(int id) {
+        return submit(() -> model.deleteDonorById(id));
+    }
+
+    // --- Recipients ---
+
+    public CompletableFuture<List<Recipient>> getRecipients() {
+        return submit(model::getRecipients);
+    }
+
+    /**
+     * @see BloodBankModel#listRecipients()
+     */
+    public CompletableFuture<RecordListing<Recipient>> listRecipients() {
+        return submit(model::listRecipients);
+    }
+
+    /**
+     * @see BloodBankModel#searchRecipients(String, int)
+     */
+    public CompletableFuture<List<Recipient>> searchRecipients(String query, int limit) {
+        return submit(() -> model.searchRecipients(query, limit));
+    }
+
+    public CompletableFuture<ArrayList<Recipient>> getRecipientHistory(int from, int count) {
+        return submit(() -> model.getRecipientHistory(from, count));
+    }
+
+    /**
+     * @see BloodBankModel#issueOneUnitToRecipient(Recipient)
+     */
+    public CompletableFuture<String> issueOneUnitToRecipient(Recipient recipient) {
+        return submit(() -> model.issueOneUnitToRecipient(recipient));
+    }
+
+    public CompletableFuture<Boolean> deleteRecipientById(int id) {
+        return submit(() -> model.deleteRecipientById(id));
+    }
+
+    // --- Blood Units ---
+
+    public CompletableFuture<List<BloodUnit>> getBloodUnits() {
+        return submit(model::getBloodUnits);
+    }
+
+    /**
+     * @see BloodBankModel#listBloodUnits()
+     */
+    public CompletableFuture<RecordListing<BloodUnit>> listBloodUnits() {
+        return submit(model::listBloodUnits);
+    }
+
+    public CompletableFuture<ArrayList<BloodUnit>> getUnitHistory(int from, int count) {
+        return submit(() -> model.getUnitHistory(from, count));
+    }
+
+    /**
+     * Answered directly rather than queued: it is a single field read and never blocks.
+     * @see BloodBankModel#getExpiryWarningDays()
+     */
+    public int getExpiryWarningDays() {
+        return model.getExpiryWarningDays();
+    }
+
+    /**
+     * @see BloodBankModel#reconcileExpiredUnits()
+     */
+    public CompletableFuture<Void> reconcileExpiredUnits() {
+        return submit(() -> {
+            model.reconcileExpiredUnits();
+            return null;
+        });
+    }
+
+    // --- Change Events and Counters ---
+    // Answered directly rather than queued: none of these block or touch the disk.
+
+    /**
+     * @see BloodBankModel#addChangeListener(ModelChangeListener)
+     */
+    public void addChangeListener(ModelChangeListener listener) {
+        model.addChangeListener(listener);
+    }
+
+    public void removeChangeListener(ModelChangeListener listener) {
+        model.removeChangeListener(listener);
+    }
+
+    /**
+     * @see BloodBankModel#copyStockCounts(int[])
+     */
+    public void copyStockCounts(int[] into) {
+        model.copyStockCounts(into);
+    }
+
+    /**
+     * @see BloodBankModel#copyShortageCounts(int[])
+     */
+    public void copyShortageCounts(int[] into) {
+        model.copyShortageCounts(into);
+    }
+
+    /**
+     * Waits for queued calls, then flushes and closes the model.
+     */
+    public CompletableFuture<Void> close() {
+        CompletableFuture<Void> closed = submit(() -> {
+            model.close();
+            return null;
+        });
+        io.shutdown();
+        return closed;
+    }
+
+    // --- Helpers ---
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return submit(io, task);
+    }
+
+    // Unlike supplyAsync, fails the future with the task's own exception (not a CompletionException)
+    private static <T> CompletableFuture<T> submit(ExecutorService executor, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+}
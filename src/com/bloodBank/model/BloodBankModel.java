@@ -2,41 +2,183 @@
 package com.bloodBank.model;
 
 // Importing File Handlers
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 
 // General Utils
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors; // For filtering
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
+/**
+ * The blood bank's data and operations. Safe to call from several threads at once:
+ * - Each blood group has its own lock (GroupLocks) for its stock and waiting queue,
+ *   so issuing and intake for unrelated groups run in parallel, and a unit is only
+ *   ever taken out of stock under its group's lock, so it cannot be issued twice.
+ * - The record tables and the journal are synchronized on their own.
+ * - Operations hold stateLock for reading; a checkpoint takes it for writing so it
+ *   copies a consistent state.
+ */
 public class BloodBankModel {
 
     // Files where data is stored
-    private static final String donorFile = "donors.dat";
-    private static final String bloodUnitFile = "bloodUnits.dat";
-    private static final String recipientFile = "recipients.dat";
+    static final String donorFile = "donors.dat";
+    static final String bloodUnitFile = "bloodUnits.dat";
+    static final String recipientFile = "recipients.dat";
+    static final String mappedUnitFile = "bloodUnits.map";
+    private static final String recipientHistoryFile = "recipients.history";
+    private static final String unitHistoryFile = "bloodUnits.history";
+    private static final String journalFile = "journal.log";
+    private static final String previousJournalFile = "journal.prev.log";
+    private static final String idFile = "ids.dat";
+    private static final String unitStoreFile = "unitStore.dat"; // Which unit store holds the units
 
-    private ArrayList<Donor> donorList; // List of Donors
-    private ArrayList<BloodUnit> bloodUnitList; // List of Blood Units
-    private ArrayList<Recipient> recipientList;
+    // Values of -Dbloodbank.unitStore, as recorded in unitStoreFile
+    private static final String JOURNALED_STORE = "journaled";
+    private static final String MAPPED_STORE = "mapped";
+
+    // Once the journal holds this many records, the .dat snapshots are rewritten
+    // and the journal is emptied, which keeps startup replay short.
+    private static final int CHECKPOINT_INTERVAL = 5000;
+
+    // Records in the order they were added, indexed by ID
+    private RecordTable<Donor> donorTable;
+    private RecordTable<BloodUnit> bloodUnitTable;
+    private RecordTable<Recipient> recipientTable;
+    // Prefix search over names, cities, emails and mobile numbers, built on the first search
+    private final PersonIndex<Donor> donorSearch;
+    private final PersonIndex<Recipient> recipientSearch;
+    // Each donor's blood units, so deleting a donor does not scan every unit
+    private final IntHashMap<ArrayList<BloodUnit>> unitsByDonor = new IntHashMap<>();
+
+    // Received recipients and issued/expired units are moved here at each checkpoint,
+    // so only active records stay in memory
+    private final HistoryArchive<Recipient> recipientHistory = new HistoryArchive<>(
+            recipientHistoryFile, RecordCodec.RECIPIENT, Recipient::getRecipientId, r -> 0);
+    private final HistoryArchive<BloodUnit> unitHistory = new HistoryArchive<>(
+            unitHistoryFile, RecordCodec.UNIT, BloodUnit::getUnitId, BloodUnit::getDonorId);
+
+    // Which in-stock unit is issued next, and the per-group stock sorted in that order
+    private volatile AllocationPolicy allocationPolicy = AllocationPolicy.FEFO;
+
+    // How many days ahead getUnitsExpiringSoon() looks (-Dbloodbank.expiryWarningDays=N to change)
+    private volatile int expiryWarningDays = Integer.getInteger("bloodbank.expiryWarningDays",
+            BloodUnit.DEFAULT_EXPIRY_WARNING_DAYS);
+    private final InventoryIndex inventory = new InventoryIndex(allocationPolicy);
+
+    // Pending recipients, queued per blood group
+    private final WaitingList waitingList = new WaitingList();
+
+    // Hands out the IDs of new donors, recipients and units
+    private IdAllocator ids;
+
+    // Guard the per-group stock and waiting queues, and the state as a whole
+    private final GroupLocks groupLocks = new GroupLocks();
+    private final ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+
+    private DataJournal journal; // Every change since the last snapshot
+    private final CopyOnWriteArrayList<ModelChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final BloodUnitStore unitStore; // How blood unit changes are persisted
+
+    // Snapshots are written on this thread so the caller never waits for them
+    private final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "bloodbank-snapshot");
+        t.setDaemon(true);
+        return t;
+    });
+    // Marks units EXPIRED as each day ends, see scheduleExpirySweep()
+    private final ScheduledThreadPoolExecutor expirySweeper = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "bloodbank-expiry");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Object checkpointMonitor = new Object(); // Guards the two fields below
+    private Future<?> pendingCheckpoint;
+    private int checkpointThreshold = CHECKPOINT_INTERVAL;
+    private volatile boolean snapshotsBehind; // The last snapshot write failed
 
     public BloodBankModel() {
-        this.donorList = loadDonorData();
-        this.bloodUnitList = loadBloodUnitData();
-        this.recipientList = loadRecipientData();
-        
-        // Update statuses on load (e.g., mark newly expired units)
-        updateUnitStatuses();
+        // Units go either through the journal (default) or into a memory-mapped file
+        String store = MAPPED_STORE.equals(System.getProperty("bloodbank.unitStore"))
+                ? MAPPED_STORE : JOURNALED_STORE;
+        String previousStore = prepareUnitStore(store);
+        if (store.equals(MAPPED_STORE)) {
+            this.unitStore = new MappedUnitStore(mappedUnitFile, bloodUnitFile);
+        } else {
+            this.unitStore = new JournaledUnitStore(bloodUnitFile, () -> journal);
+        }
+
+        loadTablesInParallel();
+        for (BloodUnit unit : bloodUnitTable) {
+            indexByDonor(unit);
+        }
+        this.donorSearch = new PersonIndex<>(donorTable, Donor::getDonorId);
+        this.recipientSearch = new PersonIndex<>(recipientTable, Recipient::getRecipientId);
+
+        // Replay the changes made after the snapshots were written
+        try {
+            this.journal = DataJournal.open(journalFile, previousJournalFile, new JournalReplayer());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open journal: " + e.getMessage(), e);
+        }
+        if (!store.equals(previousStore)) {
+            recordUnitStore(store); // Only now that the units are in the new store
+        }
+        dropArchivedRecords();
+        openIdAllocator();
+        inventory.rebuild(bloodUnitTable);
+        waitingList.rebuild(recipientTable);
+
+        // Make sure buffered journal records reach the disk when the app exits
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "bloodbank-shutdown"));
+
+        // Units that expired while the app was closed are marked by reconcileExpiredUnits(),
+        // which the caller runs once the UI is up. Until then, issuing skips them anyway.
+        scheduleExpirySweep();
     }
 
     // --- Donor Methods ---
 
-    public ArrayList<Donor> getDonors() {
-        return new ArrayList<>(this.donorList);
+    /**
+     * @return A read-only snapshot of the donors, in registration order. It is not copied,
+     *         so asking for it is cheap; later changes do not show in it.
+     */
+    public List<Donor> getDonors() {
+        return donorTable.snapshot();
+    }
+
+    /**
+     * Finds donors by the start of their first or last name, city, email or mobile number.
+     * Each word of the query must start one of those words, so "ra del" finds Ravi of Delhi;
+     * a query of digits only matches mobile numbers, with or without the country code.
+     * The index is built on the first search and kept up to date after that.
+     * @param limit The most donors to return.
+     * @return The matching donors, in registration order.
+     */
+    public List<Donor> searchDonors(String query, int limit) {
+        return donorSearch.search(query, limit);
     }
 
     /**
@@ -45,69 +187,211 @@ public class BloodBankModel {
      * @return A String message indicating the result (e.g., auto-issued to waiting list).
      */
     public String addDonor(Donor donor) {
-        this.donorList.add(donor);
-        saveDonorData(); // Save the new donor
-
-        // Automatically create the associated blood unit
-        BloodUnit newUnit = new BloodUnit(donor.getDonorId(), donor.getBloodGroup());
-        this.bloodUnitList.add(newUnit); // Add to the list in memory
-        
-        // --- NEW LOGIC ---
-        // Check if the new unit can fulfill a waiting list request *before* saving
-        String autoIssueMessage = processWaitingListForUnit(newUnit);
-        
-        // Now, save the blood unit list. Its status will be either 
-        // IN_STOCK (if no match) or ISSUED (if a match was found).
-        saveBloodUnitData(); 
-        
-        if (autoIssueMessage != null) {
-            // The process method already saved the recipient data
-            System.out.println("WAITING LIST UPDATE: " + autoIssueMessage);
-            return "Donor added successfully.\n" + autoIssueMessage;
-        } else {
-            // No auto-issue, just return a simple success message
-            return "Donor added successfully. Unit " + newUnit.getUnitId() + " is now in stock.";
+        ArrayList<Donor> donors = new ArrayList<>(1);
+        donors.add(donor);
+        DonorIntakeResult result = registerDonors(donors).get(0);
+        checkpointIfNeeded();
+        return result.getMessage();
+    }
+
+    /**
+     * Adds a batch of donors (e.g. from a blood drive) in one go: each gets a blood unit,
+     * the waiting list is matched against the new units in a single pass, and the whole
+     * batch is forced to disk once before this returns.
+     * @param donors The new donors, in registration order.
+     * @return One result per donor, in the same order.
+     */
+    public ArrayList<DonorIntakeResult> addDonors(Collection<Donor> donors) {
+        ArrayList<DonorIntakeResult> results;
+        journal.beginBulk();
+        try {
+            results = registerDonors(donors);
+        } finally {
+            journal.endBulk();
         }
+        syncJournal();
+        checkpointIfNeeded();
+        return results;
     }
 
-    public boolean deleteDonorById(int id) {
-        Donor donorToRemove = donorList.stream()
-                .filter(d -> d.getDonorId() == id)
-                .findFirst()
-                .orElse(null);
+    // Registers the donors and their units under one lock acquisition; the caller checkpoints
+    private ArrayList<DonorIntakeResult> registerDonors(Collection<Donor> donors) {
+        // Give everyone an ID and a unit before taking any lock
+        ArrayList<BloodUnit> newUnits = new ArrayList<>(donors.size());
+        int locked = 0;
+        for (Donor donor : donors) {
+            if (donor.getDonorId() == 0) {
+                donor.assignId(ids.next(IdAllocator.DONOR));
+            }
+            // Automatically create the associated blood unit; it gets its ID once the donor is in
+            BloodUnit newUnit = new BloodUnit(donor.getDonorId(), donor.getBloodGroup());
+            newUnits.add(newUnit);
+
+            // Lock each unit's own group and every group it could be given to
+            int unitGroup = BloodGroups.indexOf(newUnit.getBloodGroup());
+            locked |= unitGroup < 0 ? 0 : GroupLocks.maskOf(unitGroup) | BloodGroups.recipientsOf(unitGroup);
+        }
 
-        if (donorToRemove != null) {
-            donorList.remove(donorToRemove);
-            saveDonorData(); // Save donor list changes
+        ArrayList<DonorIntakeResult> results = new ArrayList<>(newUnits.size());
+        stateLock.readLock().lock();
+        groupLocks.lock(locked);
+        try {
+            int i = 0;
+            for (Donor donor : donors) {
+                BloodUnit newUnit = newUnits.get(i++);
+                if (donorTable.get(donor.getDonorId()) != null) {
+                    results.add(DonorIntakeResult.alreadyRegistered(donor)); // No second unit for them
+                    continue;
+                }
+                // Each change is logged before it is made, so a failed write leaves nothing
+                // in memory that is not on disk
+                journal.donorAdded(donor);
+                if (!this.donorTable.add(donor)) {
+                    results.add(DonorIntakeResult.alreadyRegistered(donor)); // Imported meanwhile
+                    continue;
+                }
+                publish(ModelChangeEvent.Type.DONOR_ADDED, donor.getDonorId(), donor);
 
-            // Also remove all associated blood units from the stock
-            boolean unitsRemoved = this.bloodUnitList.removeIf(unit -> unit.getDonorId() == id);
-            if (unitsRemoved) {
-                saveBloodUnitData(); // Save unit list changes if any were made
+                // --- NEW LOGIC ---
+                // Check if the new unit can fulfill a waiting list request *before* saving
+                newUnit.assignId(ids.next(IdAllocator.UNIT));
+                Recipient fulfilled = waitingRecipientFor(newUnit);
+                if (fulfilled != null) {
+                    newUnit.issueToRecipient(fulfilled.getRecipientId()); // Nobody else sees the unit yet
+                }
+
+                // Now, log the blood unit. Its status will be either
+                // IN_STOCK (if no match) or ISSUED (if a match was found).
+                unitStore.unitAdded(newUnit);
+                addToUnitTable(newUnit); // Add the unit to the table in memory
+                inventory.add(newUnit); // Only indexed if it is still IN_STOCK
+                publish(ModelChangeEvent.Type.UNIT_ADDED, newUnit.getUnitId(), newUnit);
+                if (fulfilled != null) {
+                    markReceived(fulfilled);
+                    publish(ModelChangeEvent.Type.RECIPIENT_FULFILLED, fulfilled.getRecipientId(), fulfilled);
+                }
+
+                DonorIntakeResult result = new DonorIntakeResult(donor, newUnit, fulfilled);
+                if (fulfilled != null) {
+                    System.out.println("WAITING LIST UPDATE: " + result.getAutoIssueMessage());
+                }
+                results.add(result);
             }
-            return true; // Success
+        } finally {
+            groupLocks.unlock(locked);
+            stateLock.readLock().unlock();
         }
-        return false; // Donor not found
+        return results;
+    }
+
+    public boolean deleteDonorById(int id) {
+        stateLock.readLock().lock();
+        try {
+            // Lock the groups of the donor and their units before touching either, so no
+            // issue can take one of the units while they are being deleted
+            int locked = groupsOfDonor(id);
+            groupLocks.lock(locked);
+            for (int needed = groupsOfDonor(id); (needed & ~locked) != 0; needed = groupsOfDonor(id)) {
+                groupLocks.unlock(locked); // A unit of another group came in meanwhile
+                locked |= needed;
+                groupLocks.lock(locked);
+            }
+            try {
+                if (donorTable.get(id) == null) {
+                    return false; // Donor not found
+                }
+                // Logged first; one record covers the donor and their units, as replay
+                // repeats the cascade
+                journal.donorDeleted(id);
+                if (donorTable.remove(id) == null) {
+                    return false; // Deleted by another call meanwhile
+                }
+
+                // Also remove all associated blood units from the stock
+                for (BloodUnit unit : removeUnitsOfDonor(id)) {
+                    inventory.remove(unit);
+                    unitStore.unitRemoved(unit);
+                    publish(ModelChangeEvent.Type.UNIT_REMOVED, unit.getUnitId(), unit);
+                }
+            } finally {
+                groupLocks.unlock(locked);
+            }
+            removeDonorHistory(id);
+            publish(ModelChangeEvent.Type.DONOR_REMOVED, id, null);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        checkpointIfNeeded();
+        return true; // Success
     }
 
     // --- Recipient Methods ---
 
     /**
-     * Gets a copy of the current recipient list (both pending and completed).
-     * @return A new ArrayList of Recipient objects.
+     * Gets a copy of the active recipient list: everyone still pending, plus those who
+     * received blood since the last checkpoint. Older completed recipients are in the
+     * history (see getRecipientHistory).
+     * @return A read-only snapshot (not a copy; later changes do not show in it).
+     */
+    public List<Recipient> getRecipients() {
+        return recipientTable.snapshot();
+    }
+
+    /**
+     * @return The active recipients and the size of the recipient history, taken together.
      */
-    public ArrayList<Recipient> getRecipients() {
-        return new ArrayList<>(this.recipientList);
+    public RecordListing<Recipient> listRecipients() {
+        stateLock.readLock().lock(); // No checkpoint can move records into the history meanwhile
+        try {
+            return new RecordListing<>(getRecipients(), recipientHistory.size());
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds active recipients the same way searchDonors finds donors. Recipients already
+     * moved to the history are not searched.
+     * @param limit The most recipients to return.
+     * @return The matching recipients, in registration order.
+     */
+    public List<Recipient> searchRecipients(String query, int limit) {
+        return recipientSearch.search(query, limit);
+    }
+
+    /**
+     * Reads a page of completed recipients from the history archive, oldest first.
+     * @param from Position of the first recipient in the history.
+     * @param count The most recipients to return.
+     */
+    public ArrayList<Recipient> getRecipientHistory(int from, int count) {
+        try {
+            return recipientHistory.read(from, count);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error reading recipient history: " + e.getMessage(), e);
+        }
     }
 
     /**
      * (This method is no longer recommended for issuing blood)
-     * Adds a new recipient to the list and saves to file.
+     * Adds a new recipient to the list and logs it to the journal.
      * @param recipient The Recipient object to add.
      */
     public void addRecipient(Recipient recipient) {
-        this.recipientList.add(recipient);
-        saveRecipientData();
+        assignId(recipient);
+        int locked = GroupLocks.maskOf(BloodGroups.indexOf(recipient.getBloodGroup()));
+        stateLock.readLock().lock();
+        groupLocks.lock(locked);
+        try {
+            journal.recipientAdded(recipient);
+            this.recipientTable.add(recipient);
+            waitingList.enqueue(recipient); // Only queued if still pending
+            publish(ModelChangeEvent.Type.RECIPIENT_ADDED, recipient.getRecipientId(), recipient);
+        } finally {
+            groupLocks.unlock(locked);
+            stateLock.readLock().unlock();
+        }
+        checkpointIfNeeded();
     }
 
     /**
@@ -116,17 +400,43 @@ public class BloodBankModel {
      * @return true if a recipient was found and removed, false otherwise.
      */
     public boolean deleteRecipientById(int id) {
-        Recipient recipientToRemove = recipientList.stream()
-                .filter(r -> r.getRecipientId() == id)
-                .findFirst()
-                .orElse(null);
+        stateLock.readLock().lock();
+        try {
+            Recipient recipientToRemove = recipientTable.get(id);
+
+            if (recipientToRemove != null) {
+                int locked = GroupLocks.maskOf(BloodGroups.indexOf(recipientToRemove.getBloodGroup()));
+                groupLocks.lock(locked);
+                try {
+                    journal.recipientDeleted(id); // Logged before the recipient is removed
+                    if (recipientTable.remove(id) == null) {
+                        return false; // Deleted by another call meanwhile
+                    }
+                    waitingList.remove(recipientToRemove);
+                } finally {
+                    groupLocks.unlock(locked);
+                }
+            } else if (recipientHistory.contains(id)) {
+                journal.recipientDeleted(id); // Was an archived (completed) recipient
+                if (!removeFromHistory(recipientHistory, id)) {
+                    return false;
+                }
+            } else {
+                return false; // Recipient not found
+            }
+            publish(ModelChangeEvent.Type.RECIPIENT_REMOVED, id, null);
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        checkpointIfNeeded();
+        return true; // Success
+    }
 
-        if (recipientToRemove != null) {
-            recipientList.remove(recipientToRemove);
-            saveRecipientData();
-            return true; // Success
+    // New recipients get their ID when they are registered; stored ones keep theirs
+    private void assignId(Recipient recipient) {
+        if (recipient.getRecipientId() == 0) {
+            recipient.assignId(ids.next(IdAllocator.RECIPIENT));
         }
-        return false; // Recipient not found
     }
 
     // --- Transaction & Waiting List Methods ---
@@ -143,94 +453,110 @@ public class BloodBankModel {
 
         String requestedBloodGroup = recipient.getBloodGroup();
         String recipientName = recipient.getFirstName() + " " + recipient.getLastName();
+        int group = BloodGroups.indexOf(requestedBloodGroup);
+        assignId(recipient);
+
+        BloodUnit unitToIssue = null;
+        stateLock.readLock().lock();
+        // Fast path: only the recipient's own group is locked
+        int locked = GroupLocks.maskOf(group);
+        groupLocks.lock(locked);
+        try {
+            // 1. Try to find an available compatible unit (taken out of the inventory index)
+            if (group >= 0 && peekInStockUnit(group) != null) {
+                unitToIssue = inventory.pollFirst(group);
+            } else if (group >= 0) {
+                // Lock every compatible group (in order) to compare them and to queue the
+                // recipient without a matching donation slipping in between
+                groupLocks.unlock(locked);
+                locked = BloodGroups.donorsFor(group);
+                groupLocks.lock(locked);
+                unitToIssue = takeCompatibleUnit(group);
+            }
+
+            // 2. Perform transaction based on result
+            if (unitToIssue != null) {
+                // --- SUCCESS CASE (Blood is available) ---
+                // Each change is logged before it is made, so a failed write changes nothing more
 
-        // 1. Try to find an available unit
-        BloodUnit unitToIssue = this.bloodUnitList.stream()
-            .filter(unit -> unit.getBloodGroup().equals(requestedBloodGroup) && 
-                            unit.getStatus() == BloodStatus.IN_STOCK)
-            .findFirst() // Get the first available unit
-            .orElse(null); // Or null if none is found
+                // Step A: Mark unit as ISSUED and link to recipient ID
+                try {
+                    unitStore.unitChanging(unitToIssue, BloodStatus.ISSUED, recipient.getRecipientId());
+                } catch (RuntimeException e) {
+                    inventory.add(unitToIssue); // Still in stock after all
+                    throw e;
+                }
+                unitToIssue.issueToRecipient(recipient.getRecipientId()); // <-- UPDATED
+                publish(ModelChangeEvent.Type.UNIT_STATUS_CHANGED, unitToIssue.getUnitId(), unitToIssue);
+
+                // Step B: Mark recipient as RECEIVED (sets the date); they are not registered yet
+                recipient.markAsReceived();
+
+                // Step C: Log the *completed* recipient and add them to the list
+                journal.recipientAdded(recipient);
+                this.recipientTable.add(recipient);
+            } else {
+                // --- WAITING LIST CASE (Blood not available) ---
+
+                // Step A: The recipient's 'dateReceived' is still null,
+                // so they are automatically "pending".
+
+                // Step B: Log the new recipient
+                journal.recipientAdded(recipient);
+
+                // Step C: Add the *pending* recipient to the list and their group's queue
+                this.recipientTable.add(recipient);
+                waitingList.enqueue(recipient);
+            }
+            publish(ModelChangeEvent.Type.RECIPIENT_ADDED, recipient.getRecipientId(), recipient);
+        } finally {
+            groupLocks.unlock(locked);
+            stateLock.readLock().unlock();
+        }
+        checkpointIfNeeded();
 
-        // 2. Perform transaction based on result
         if (unitToIssue != null) {
-            // --- SUCCESS CASE (Blood is available) ---
-            
-            // Step A: Mark unit as ISSUED and link to recipient ID
-            unitToIssue.issueToRecipient(recipient.getRecipientId()); // <-- UPDATED
-            
-            // Step B: Mark recipient as RECEIVED (sets the date)
-            recipient.markAsReceived(); 
-            
-            // Step C: Add the *completed* recipient to the log
-            this.recipientList.add(recipient); 
-            
-            // Step D: Save both files
-            saveBloodUnitData();
-            saveRecipientData();
-            
-            return "Success: Issued 1 unit of " + requestedBloodGroup + 
+            String issuedGroup = unitToIssue.getBloodGroup().equals(requestedBloodGroup)
+                    ? requestedBloodGroup
+                    : unitToIssue.getBloodGroup() + " (compatible with " + requestedBloodGroup + ")";
+            return "Success: Issued 1 unit of " + issuedGroup + 
                    " to " + recipientName + " (Unit ID: " + unitToIssue.getUnitId() + ")";
-        } else {
-            // --- WAITING LIST CASE (Blood not available) ---
-            
-            // Step A: The recipient's 'dateReceived' is still null, 
-            // so they are automatically "pending".
-            
-            // Step B: Add the *pending* recipient to the log
-            this.recipientList.add(recipient); 
-            
-            // Step C: Save the recipient list
-            saveRecipientData();
-            
-            return "Blood not available. " + recipientName + 
-                   " has been added to the waiting list.";
-        }
-    }
-
-    /**
-     * Checks the waiting list for a recipient who needs this specific new unit.
-     * If a match is found, it updates both objects and saves the recipient list.
-     * NOTE: This method does NOT save the bloodUnitList. The calling method must do that.
+        }
+        return "Blood not available. " + recipientName + 
+               " has been added to the waiting list.";
+    }
+
+    /**
+     * Finds the waiting list recipient who should get this specific new unit: the first
+     * one with exactly its blood type, otherwise the one who has waited longest among
+     * the compatible types. Changes nothing; see markReceived().
+     * The caller holds the locks of the unit's group and of every group it can be given to.
      * @param newUnit The newly donated blood unit (which is NOT yet saved).
-     * @return A message if a waiting list recipient was fulfilled, or null otherwise.
-     */
-    private String processWaitingListForUnit(BloodUnit newUnit) {
-        // Find the first recipient on the waiting list who needs this blood type
-        Recipient recipientToFulfill = this.getWaitingList().stream()
-            .filter(r -> r.getBloodGroup().equals(newUnit.getBloodGroup()))
-            .findFirst()
-            .orElse(null);
-            
-        if (recipientToFulfill != null) {
-            // --- We found a match! Fulfill the request ---
-            
-            // Step A: Mark the unit as ISSUED and link to recipient ID
-            newUnit.issueToRecipient(recipientToFulfill.getRecipientId()); // <-- UPDATED
-            
-            // Step B: Mark the recipient as RECEIVED
-            recipientToFulfill.markAsReceived();
-            
-            // Step C: Save the RECIPIENT list (which already contained this recipient)
-            saveRecipientData();
-            
-            // Return a message
-            return "Auto-issued new unit " + newUnit.getUnitId() + 
-                   " to waiting recipient: " + recipientToFulfill.getFirstName() +
-                   " (ID: " + recipientToFulfill.getRecipientId() + ")";
-        }
-        
-        // No one on the waiting list needed this type
-        return null; 
+     * @return The recipient (still on the waiting list), or null if nobody needs the unit.
+     */
+    private Recipient waitingRecipientFor(BloodUnit newUnit) {
+        int unitGroup = BloodGroups.indexOf(newUnit.getBloodGroup());
+        return unitGroup < 0 ? null : waitingList.firstMatchFor(unitGroup);
+    }
+
+    /**
+     * Logs that a waiting recipient got their unit, then marks them RECEIVED and takes
+     * them off the waiting list. The caller holds the recipient's group lock.
+     */
+    private void markReceived(Recipient recipient) {
+        LocalDate today = DayClock.current().todayDate();
+        journal.recipientReceived(recipient.getRecipientId(), today);
+        recipient.restoreDateReceived(today);
+        waitingList.remove(recipient);
     }
 
     /**
      * Gets a list of all recipients who are still waiting for blood.
-     * @return An ArrayList of Recipient objects where 'dateReceived' is null.
+     * @return A read-only list of Recipient objects where 'dateReceived' is null, in arrival
+     *         order. Built once per change to the waiting list and shared until the next one.
      */
-    public ArrayList<Recipient> getWaitingList() {
-        return this.recipientList.stream()
-            .filter(recipient -> !recipient.didReceiveUnit()) // or recipient.didReceiveUnit() == false
-            .collect(Collectors.toCollection(ArrayList::new));
+    public List<Recipient> getWaitingList() {
+        return waitingList.snapshot();
     }
 
     /**
@@ -239,176 +565,986 @@ public class BloodBankModel {
      * @return A Map<String, Integer> where key is blood type and value is count.
      */
     public Map<String, Integer> getShortageByBloodType() {
-        // Get the list of people waiting
-        ArrayList<Recipient> waitingList = getWaitingList();
-        
-        // Group them by blood type and count how many are in each group
-        Map<String, Long> rawShortage = waitingList.stream()
-            .collect(Collectors.groupingBy(
-                Recipient::getBloodGroup, // The key to group by
-                Collectors.counting()     // How to count them
-            ));
+        int[] counts = new int[BloodGroups.COUNT];
+        copyShortageCounts(counts);
+        return toGroupMap(counts);
+    }
+
+    /**
+     * Copies the number of recipients waiting in each blood group into the array,
+     * indexed like BloodGroups.ALL. Reads maintained counters, so it does not allocate.
+     * @param into An array of at least BloodGroups.COUNT elements.
+     */
+    public void copyShortageCounts(int[] into) {
+        waitingList.copyCounts(into);
+    }
+
+    // --- Blood Unit Methods ---
+
+    /**
+     * Gets a copy of the active blood units: everything in stock, plus units issued or
+     * expired since the last checkpoint. Older ones are in the history (see getUnitHistory).
+     * @return A read-only snapshot (not a copy; later changes do not show in it).
+     */
+    public List<BloodUnit> getBloodUnits() {
+        return bloodUnitTable.snapshot();
+    }
 
-        // Convert the Map<String, Long> to Map<String, Integer>
-        Map<String, Integer> shortage = new HashMap<>();
-        for (Map.Entry<String, Long> entry : rawShortage.entrySet()) {
-            shortage.put(entry.getKey(), entry.getValue().intValue());
+    /**
+     * @return The active units and the size of the unit history, taken together.
+     */
+    public RecordListing<BloodUnit> listBloodUnits() {
+        stateLock.readLock().lock(); // No checkpoint can move records into the history meanwhile
+        try {
+            return new RecordListing<>(getBloodUnits(), unitHistory.size());
+        } finally {
+            stateLock.readLock().unlock();
         }
+    }
 
-        // Ensure all blood types are present in the map, even if count is 0
-        String[] bloodTypes = { "A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-" };
-        for (String type : bloodTypes) {
-            shortage.putIfAbsent(type, 0);
+    /**
+     * Reads a page of issued and expired units from the history archive, oldest first.
+     * @param from Position of the first unit in the history.
+     * @param count The most units to return.
+     */
+    public ArrayList<BloodUnit> getUnitHistory(int from, int count) {
+        try {
+            return unitHistory.read(from, count);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error reading blood unit history: " + e.getMessage(), e);
         }
-        
-        return shortage;
     }
 
+    public void addBloodUnit(BloodUnit unit) {
+        if (unit.getUnitId() == 0) {
+            unit.assignId(ids.next(IdAllocator.UNIT));
+        }
+        int locked = GroupLocks.maskOf(BloodGroups.indexOf(unit.getBloodGroup()));
+        stateLock.readLock().lock();
+        groupLocks.lock(locked);
+        try {
+            unitStore.unitAdded(unit); // Logged before the unit is added
+            addToUnitTable(unit);
+            inventory.add(unit);
+            publish(ModelChangeEvent.Type.UNIT_ADDED, unit.getUnitId(), unit);
+        } finally {
+            groupLocks.unlock(locked);
+            stateLock.readLock().unlock();
+        }
+        checkpointIfNeeded();
+    }
 
-    // --- Blood Unit Methods ---
+    public Map<String, Integer> getBloodStock() {
+        int[] counts = new int[BloodGroups.COUNT];
+        copyStockCounts(counts);
+        return toGroupMap(counts);
+    }
 
-    public ArrayList<BloodUnit> getBloodUnits() {
-        return new ArrayList<>(this.bloodUnitList);
+    /**
+     * Copies the number of IN_STOCK units of each blood group into the array,
+     * indexed like BloodGroups.ALL. Reads maintained counters, so it does not allocate.
+     * @param into An array of at least BloodGroups.COUNT elements.
+     */
+    public void copyStockCounts(int[] into) {
+        inventory.copyCounts(into);
     }
 
-    public void addBloodUnit(BloodUnit unit) {
-        this.bloodUnitList.add(unit);
-        saveBloodUnitData();
+    /**
+     * @return The in-stock units that expire within the warning horizon (today included), soonest first.
+     */
+    public ArrayList<BloodUnit> getUnitsExpiringSoon() {
+        long today = DayClock.current().today();
+        return unitsExpiringBetween(today, today + expiryWarningDays, GroupLocks.ALL);
     }
 
-    public Map<String, Integer> getBloodStock() {
-        Map<String, Integer> stock = new HashMap<>();
-        String[] bloodTypes = { "A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-" };
-        for (String type : bloodTypes) {
-            stock.put(type, 0);
+    /**
+     * Returns the in-stock units whose expiry date is between from and to (both included),
+     * soonest first. Served from the inventory's expiry-day index in O(log n + k), so issued
+     * and expired history is never looked at.
+     */
+    public ArrayList<BloodUnit> unitsExpiringBetween(LocalDate from, LocalDate to) {
+        return unitsExpiringBetween(from.toEpochDay(), to.toEpochDay(), GroupLocks.ALL);
+    }
+
+    /**
+     * Like unitsExpiringBetween(from, to), for one blood group only.
+     */
+    public ArrayList<BloodUnit> unitsExpiringBetween(LocalDate from, LocalDate to, String bloodGroup) {
+        int group = BloodGroups.indexOf(bloodGroup);
+        if (group < 0) {
+            return new ArrayList<>();
         }
-        for (BloodUnit unit : bloodUnitList) {
-            if (unit.getStatus() == BloodStatus.IN_STOCK) {
-                String bloodGroup = unit.getBloodGroup().toUpperCase().trim();
-                stock.put(bloodGroup, stock.getOrDefault(bloodGroup, 0) + 1);
+        return unitsExpiringBetween(from.toEpochDay(), to.toEpochDay(), GroupLocks.maskOf(group));
+    }
+
+    private ArrayList<BloodUnit> unitsExpiringBetween(long fromDay, long toDay, int groups) {
+        ArrayList<BloodUnit> units = new ArrayList<>();
+        for (int group = 0; group < BloodGroups.COUNT; group++) {
+            int locked = GroupLocks.maskOf(group);
+            if ((groups & locked) == 0) {
+                continue;
             }
+            groupLocks.lock(locked);
+            try {
+                inventory.addExpiringBetween(group, fromDay, toDay, units);
+            } finally {
+                groupLocks.unlock(locked);
+            }
+        }
+        if (Integer.bitCount(groups) > 1) {
+            units.sort(Comparator.comparing(BloodUnit::getExpiryDate)); // Merge the groups
         }
-        return stock;
+        return units;
     }
 
-    public ArrayList<BloodUnit> getUnitsExpiringSoon() {
-        return bloodUnitList.stream()
-                .filter(unit -> unit.isExpiringSoon())
-                .collect(Collectors.toCollection(ArrayList::new));
+    /**
+     * @return How many days ahead a unit counts as expiring soon.
+     */
+    public int getExpiryWarningDays() {
+        return expiryWarningDays;
+    }
+
+    public void setExpiryWarningDays(int days) {
+        if (days < 0) {
+            throw new IllegalArgumentException("Expiry warning days cannot be negative: " + days);
+        }
+        this.expiryWarningDays = days;
     }
 
     public boolean useBloodUnit(int unitId) {
-        for (BloodUnit unit : bloodUnitList) {
-            if (unit.getUnitId() == unitId) {
-                if (unit.getStatus() == BloodStatus.IN_STOCK) {
-                    unit.setStatus(BloodStatus.ISSUED); // This is now a simple "mark used"
-                    saveBloodUnitData();
-                    return true;
-                } else {
-                    return false;
+        BloodUnit unit = bloodUnitTable.get(unitId);
+        if (unit == null) {
+            return false;
+        }
+        int locked = GroupLocks.maskOf(BloodGroups.indexOf(unit.getBloodGroup()));
+        stateLock.readLock().lock();
+        groupLocks.lock(locked);
+        try {
+            // Checked under the group lock, so a unit being issued or deleted elsewhere is not used
+            if (bloodUnitTable.get(unitId) != unit || unit.getStatus() != BloodStatus.IN_STOCK) {
+                return false;
+            }
+            unitStore.unitChanging(unit, BloodStatus.ISSUED, unit.getRecipientId()); // Logged first
+            inventory.remove(unit);
+            unit.setStatus(BloodStatus.ISSUED); // This is now a simple "mark used"
+            publish(ModelChangeEvent.Type.UNIT_STATUS_CHANGED, unit.getUnitId(), unit);
+        } finally {
+            groupLocks.unlock(locked);
+            stateLock.readLock().unlock();
+        }
+        checkpointIfNeeded();
+        return true;
+    }
+
+    public AllocationPolicy getAllocationPolicy() {
+        return allocationPolicy;
+    }
+
+    /**
+     * Changes which in-stock unit is issued next (FEFO by default).
+     * @param policy e.g. AllocationPolicy.FEFO or AllocationPolicy.FIFO.
+     */
+    public void setAllocationPolicy(AllocationPolicy policy) {
+        groupLocks.lock(GroupLocks.ALL);
+        try {
+            this.allocationPolicy = policy;
+            inventory.reorder(policy);
+        } finally {
+            groupLocks.unlock(GroupLocks.ALL);
+        }
+    }
+
+    /**
+     * Takes a unit the recipient group can receive out of the index.
+     * A unit of the same group is preferred; otherwise the allocation policy picks
+     * among the heads of the other compatible groups (found via the compatibility mask).
+     * The caller holds the locks of every group in BloodGroups.donorsFor(recipientGroup).
+     * @param recipientGroup The blood group code (see BloodGroups), or -1 for an unknown group.
+     * @return The unit, or null if none is available.
+     */
+    private BloodUnit takeCompatibleUnit(int recipientGroup) {
+        if (recipientGroup < 0) {
+            return null;
+        }
+        if (peekInStockUnit(recipientGroup) != null) {
+            return inventory.pollFirst(recipientGroup);
+        }
+
+        int others = BloodGroups.donorsFor(recipientGroup) & ~(1 << recipientGroup);
+        int bestGroup = -1;
+        BloodUnit best = null;
+        for (int group = 0; group < BloodGroups.COUNT; group++) {
+            if ((others & (1 << group)) == 0) {
+                continue;
+            }
+            BloodUnit head = peekInStockUnit(group);
+            if (head != null && (best == null || inventory.order().compare(head, best) < 0)) {
+                best = head;
+                bestGroup = group;
+            }
+        }
+        return bestGroup < 0 ? null : inventory.pollFirst(bestGroup);
+    }
+
+    /**
+     * Returns the unit the allocation policy would issue next for the group, leaving it in the index.
+     * Units that expired since the last status update are marked EXPIRED on the way.
+     * The caller holds the group's lock.
+     */
+    private BloodUnit peekInStockUnit(int group) {
+        BloodUnit unit;
+        int today = DayClock.current().today();
+        while ((unit = inventory.peekFirst(group)) != null && unit.isExpired(today)) {
+            unitStore.unitChanging(unit, BloodStatus.EXPIRED, unit.getRecipientId()); // Logged first
+            inventory.pollFirst(group);
+            unit.setStatus(BloodStatus.EXPIRED);
+            publish(ModelChangeEvent.Type.UNIT_STATUS_CHANGED, unit.getUnitId(), unit);
+            System.out.println("Unit " + unit.getUnitId() + " marked as EXPIRED.");
+        }
+        return unit;
+    }
+
+    private static Map<String, Integer> toGroupMap(int[] counts) {
+        Map<String, Integer> map = new HashMap<>();
+        for (int group = 0; group < BloodGroups.COUNT; group++) {
+            map.put(BloodGroups.ALL[group], counts[group]);
+        }
+        return map;
+    }
+
+    /**
+     * Marks the IN_STOCK units whose expiry date has passed as EXPIRED and logs just those
+     * changes. The units come out of the inventory's expiry-day buckets, so the work is
+     * proportional to the units that expired rather than to the stock.
+     * Runs shortly after every midnight. Not run by the constructor, so startup does not
+     * wait for it; call it once after loading.
+     */
+    public void reconcileExpiredUnits() {
+        int today = DayClock.current().today();
+        int expired = 0;
+        stateLock.readLock().lock();
+        try {
+            for (int group = 0; group < BloodGroups.COUNT; group++) {
+                int locked = GroupLocks.maskOf(group);
+                groupLocks.lock(locked);
+                try {
+                    ArrayList<BloodUnit> units = new ArrayList<>();
+                    inventory.addExpired(group, today, units);
+                    for (BloodUnit unit : units) {
+                        unitStore.unitChanging(unit, BloodStatus.EXPIRED, unit.getRecipientId()); // Logged first
+                        inventory.remove(unit);
+                        unit.setStatus(BloodStatus.EXPIRED);
+                        publish(ModelChangeEvent.Type.UNIT_STATUS_CHANGED, unit.getUnitId(), unit);
+                        expired++;
+                        System.out.println("Unit " + unit.getUnitId() + " marked as EXPIRED.");
+                    }
+                } finally {
+                    groupLocks.unlock(locked);
+                }
+            }
+        } finally {
+            stateLock.readLock().unlock();
+        }
+        if (expired > 0) {
+            checkpointIfNeeded();
+        }
+    }
+
+    // Runs reconcileExpiredUnits() just after the next midnight of DayClock.current(),
+    // then again each night
+    private void scheduleExpirySweep() {
+        long delay = DayClock.current().millisUntilTomorrow() + 1000;
+        try {
+            expirySweeper.schedule(() -> {
+                try {
+                    reconcileExpiredUnits();
+                } catch (RuntimeException e) {
+                    System.out.println("Error marking expired units: " + e.getMessage());
+                } finally {
+                    scheduleExpirySweep();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The model was closed
+        }
+    }
+
+    // --- Bulk Import ---
+    // Imported records keep their IDs (records with ID 0 get new ones) and are added as they
+    // are: no units are created and the waiting list is not matched. Each batch is forced to
+    // disk once, before the call returns. No checkpoint is started; call checkpoint() after
+    // the last batch.
+
+    /**
+     * @return How many donors were added; donors whose ID is already taken are skipped.
+     */
+    public int importDonors(Collection<Donor> donors) {
+        assignImportIds(donors, IdAllocator.DONOR, Donor::getDonorId, Donor::assignId);
+        int added = 0;
+        stateLock.readLock().lock();
+        journal.beginBulk();
+        try {
+            for (Donor donor : donors) {
+                if (donorTable.get(donor.getDonorId()) != null) {
+                    continue;
+                }
+                journal.donorAdded(donor); // Logged before the donor is added
+                if (donorTable.add(donor)) {
+                    added++;
+                }
+            }
+        } finally {
+            journal.endBulk();
+            stateLock.readLock().unlock();
+        }
+        syncJournal();
+        publishImport(added);
+        return added;
+    }
+
+    /**
+     * @return How many recipients were added; recipients whose ID is already taken are skipped.
+     */
+    public int importRecipients(Collection<Recipient> recipients) {
+        assignImportIds(recipients, IdAllocator.RECIPIENT, Recipient::getRecipientId, Recipient::assignId);
+        int added = 0;
+        stateLock.readLock().lock();
+        groupLocks.lock(GroupLocks.ALL);
+        journal.beginBulk();
+        try {
+            for (Recipient recipient : recipients) {
+                int id = recipient.getRecipientId();
+                if (recipientHistory.contains(id) || recipientTable.get(id) != null) {
+                    continue;
+                }
+                journal.recipientAdded(recipient); // Logged before the recipient is added
+                if (recipientTable.add(recipient)) {
+                    waitingList.enqueue(recipient); // Only queued if still pending
+                    added++;
+                }
+            }
+        } finally {
+            journal.endBulk();
+            groupLocks.unlock(GroupLocks.ALL);
+            stateLock.readLock().unlock();
+        }
+        syncJournal();
+        publishImport(added);
+        return added;
+    }
+
+    /**
+     * @return How many units were added. Units whose ID is already taken, whose donor
+     *         does not exist (import the donors first), or whose blood group is not the
+     *         donor's, are skipped.
+     */
+    public int importUnits(Collection<BloodUnit> units) {
+        assignImportIds(units, IdAllocator.UNIT, BloodUnit::getUnitId, BloodUnit::assignId);
+        int added = 0;
+        stateLock.readLock().lock();
+        groupLocks.lock(GroupLocks.ALL);
+        journal.beginBulk();
+        try {
+            for (BloodUnit unit : units) {
+                Donor donor = donorTable.get(unit.getDonorId());
+                if (donor == null || unitHistory.contains(unit.getUnitId())) {
+                    continue;
+                }
+                if (!unit.getBloodGroup().equals(donor.getBloodGroup())) {
+                    continue; // Would put another group's blood into this group's stock
+                }
+                if (bloodUnitTable.get(unit.getUnitId()) != null) {
+                    continue;
+                }
+                unitStore.unitAdded(unit); // Logged before the unit is added
+                if (addToUnitTable(unit)) {
+                    inventory.add(unit); // Only indexed if IN_STOCK
+                    added++;
                 }
             }
+        } finally {
+            journal.endBulk();
+            groupLocks.unlock(GroupLocks.ALL);
+            stateLock.readLock().unlock();
         }
-        return false;
+        syncJournal();
+        publishImport(added);
+        return added;
     }
 
-    private void updateUnitStatuses() {
-        boolean dataChanged = false;
-        for (BloodUnit unit : bloodUnitList) {
-            if (unit.getStatus() == BloodStatus.IN_STOCK && unit.isExpired()) {
-                unit.setStatus(BloodStatus.EXPIRED);
-                dataChanged = true;
-                System.out.println("Unit " + unit.getUnitId() + " marked as EXPIRED.");
+    // Keeps the records' own IDs out of future allocation and gives the rest one block of new IDs
+    private <T> void assignImportIds(Collection<T> records, int kind,
+                                     ToIntFunction<T> idOf, ObjIntConsumer<T> assign) {
+        int missing = 0;
+        int maxId = 0;
+        for (T record : records) {
+            int id = idOf.applyAsInt(record);
+            if (id == 0) {
+                missing++;
+            } else {
+                maxId = Math.max(maxId, id);
             }
         }
-        if (dataChanged) {
-            saveBloodUnitData();
+        if (maxId > 0) {
+            ids.advancePast(kind, maxId);
+        }
+        int next = ids.nextRange(kind, missing);
+        for (T record : records) {
+            if (idOf.applyAsInt(record) == 0) {
+                assign.accept(record, next++);
+            }
+        }
+    }
+
+    // --- Change Events ---
+
+    /**
+     * Registers a listener for every later change (see ModelChangeListener for its rules).
+     */
+    public void addChangeListener(ModelChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(ModelChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Called at the point of each change, under the same locks; no event is built if nobody listens
+    private void publish(ModelChangeEvent.Type type, int id, Object record) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        ModelChangeEvent event = new ModelChangeEvent(type, id, record);
+        for (ModelChangeListener listener : listeners) {
+            try {
+                listener.modelChanged(event);
+            } catch (RuntimeException e) {
+                System.out.println("Error in change listener: " + e.getMessage());
+            }
+        }
+    }
+
+    private void publishImport(int added) {
+        if (added > 0) {
+            publish(ModelChangeEvent.Type.RECORDS_IMPORTED, 0, null);
         }
     }
 
     // --- Data Persistence ---
 
-    @SuppressWarnings("unchecked")
-    private ArrayList<Donor> loadDonorData() {
-        ArrayList<Donor> donorInpList = new ArrayList<>();
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(donorFile))) {
-            donorInpList = (ArrayList<Donor>) ois.readObject();
-            System.out.println("Donor data loaded successfully.");
-        } catch (java.io.FileNotFoundException e) {
-            System.out.println("No donor save file found. Starting fresh.");
-        } catch (Exception e) {
-            System.out.println("Error loading donor data: " + e.getMessage());
+    /**
+     * Rewrites all three .dat snapshots in the background once the journal has grown
+     * past the checkpoint threshold. Individual changes only append to the journal.
+     */
+    private void checkpointIfNeeded() {
+        synchronized (checkpointMonitor) {
+            boolean idle = pendingCheckpoint == null || pendingCheckpoint.isDone();
+            if (idle && journal.getRecordCount() >= checkpointThreshold) {
+                pendingCheckpoint = startCheckpoint();
+            }
         }
+    }
 
-        if (!donorInpList.isEmpty()) {
-            int maxId = donorInpList.stream().mapToInt(Donor::getDonorId).max().orElse(0);
-            Donor.setNextId(maxId + 1);
+    // Forces everything logged so far to disk, for batches that must be durable on return
+    private void syncJournal() {
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            throw new IllegalStateException("Error saving data: " + e.getMessage(), e);
         }
-        return donorInpList;
     }
 
-    private void saveDonorData() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(donorFile))) {
-            oos.writeObject(this.donorList);
-        } catch (Exception e) {
-            System.out.println("Error saving donor data: " + e.getMessage());
+    /**
+     * Writes fresh snapshots of every list and waits for them to reach the disk.
+     */
+    public void checkpoint() {
+        synchronized (checkpointMonitor) {
+            awaitPendingCheckpoint();
+            pendingCheckpoint = startCheckpoint();
+            awaitPendingCheckpoint();
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private ArrayList<BloodUnit> loadBloodUnitData() {
-        ArrayList<BloodUnit> unitInpList = new ArrayList<>();
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(bloodUnitFile))) {
-            unitInpList = (ArrayList<BloodUnit>) ois.readObject();
-            System.out.println("Blood unit data loaded successfully.");
-        } catch (java.io.FileNotFoundException e) {
-            System.out.println("No blood unit save file found. Starting fresh.");
-        } catch (Exception e) {
-            System.out.println("Error loading blood unit data: " + e.getMessage());
+    /**
+     * Takes snapshots of the tables and rotates the journal, then archives and writes on the
+     * snapshot thread. Changes made after the copy go to the new journal, and the
+     * rotated one is kept until the next checkpoint, so a snapshot that fails or
+     * falls back to its previous generation is always covered by journal replay.
+     * Holds stateLock for writing only while it copies and rotates, so no operation is
+     * half-done in the copy. The caller holds checkpointMonitor.
+     */
+    private Future<?> startCheckpoint() {
+        List<Donor> donors;
+        List<BloodUnit> units;
+        List<Recipient> recipients;
+
+        stateLock.writeLock().lock();
+        try {
+            donors = donorTable.snapshot();
+            units = bloodUnitTable.snapshot();
+            recipients = recipientTable.snapshot();
+
+            if (snapshotsBehind) {
+                // The rotated journal is still needed, keep appending to the current one
+                checkpointThreshold = journal.getRecordCount() + CHECKPOINT_INTERVAL;
+            } else {
+                journal.rotate();
+                checkpointThreshold = CHECKPOINT_INTERVAL;
+            }
+        } catch (IOException e) {
+            System.out.println("Error rotating journal: " + e.getMessage());
+            checkpointThreshold = journal.getRecordCount() + CHECKPOINT_INTERVAL;
+            return null;
+        } finally {
+            stateLock.writeLock().unlock();
+        }
+
+        return snapshotExecutor.submit(() -> {
+            // Finished records go to the history and are left out of the snapshots
+            ArrayList<Recipient> received = new ArrayList<>();
+            ArrayList<Recipient> activeRecipients = new ArrayList<>(recipients.size());
+            split(recipients, Recipient::didReceiveUnit, received, activeRecipients);
+            ArrayList<BloodUnit> finished = new ArrayList<>();
+            ArrayList<BloodUnit> activeUnits = new ArrayList<>(units.size());
+            split(units, unit -> unit.getStatus() != BloodStatus.IN_STOCK, finished, activeUnits);
+
+            boolean archived = archiveHistory(received, finished);
+            if (archived) {
+                stateLock.writeLock().lock();
+                try {
+                    dropArchived(received, finished);
+                } finally {
+                    stateLock.writeLock().unlock();
+                }
+            }
+
+            try {
+                writeSnapshot(donorFile, RecordCodec.DONOR, donors);
+                unitStore.checkpoint(archived ? activeUnits : units);
+                writeSnapshot(recipientFile, RecordCodec.RECIPIENT, archived ? activeRecipients : recipients);
+                snapshotsBehind = false;
+            } catch (IOException e) {
+                snapshotsBehind = true;
+                System.out.println("Error writing checkpoint: " + e.getMessage());
+            }
+        });
+    }
+
+    private void awaitPendingCheckpoint() {
+        if (pendingCheckpoint == null) {
+            return;
+        }
+        try {
+            pendingCheckpoint.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Error writing checkpoint: " + e.getCause());
+        }
+    }
+
+    /**
+     * Waits for any snapshot in progress and flushes the journal to disk.
+     * Called automatically on shutdown.
+     */
+    public void close() {
+        expirySweeper.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        expirySweeper.shutdown();
+        try {
+            expirySweeper.awaitTermination(5, TimeUnit.SECONDS); // Let a running sweep finish logging
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (checkpointMonitor) {
+            awaitPendingCheckpoint();
+        }
+        snapshotExecutor.shutdown();
+        journal.close();
+        unitStore.close();
+        recipientHistory.close();
+        unitHistory.close();
+        ids.close();
+    }
+
+    // --- History ---
+
+    /**
+     * Sorts copied records into those that are final (received recipients, issued or
+     * expired units), which never change again and can be archived, and the rest.
+     */
+    private static <T> void split(List<T> records, Predicate<T> isFinished,
+                                  ArrayList<T> finished, ArrayList<T> active) {
+        for (T record : records) {
+            if (isFinished.test(record)) {
+                finished.add(record);
+            } else {
+                active.add(record);
+            }
+        }
+    }
+
+    /**
+     * Writes the received recipients and finished units to the history archives and forces
+     * them to disk. Runs on the snapshot thread without stateLock, so issuing and
+     * registering go on meanwhile.
+     * @return false if the archives could not be written; the records then stay in memory
+     *         and the next checkpoint tries again.
+     */
+    private boolean archiveHistory(ArrayList<Recipient> received, ArrayList<BloodUnit> finished) {
+        try {
+            recipientHistory.append(received);
+            unitHistory.append(finished);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error archiving history: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Takes the archived records out of the tables, so later snapshots no longer contain
+     * them. A record deleted while it was being archived is taken out of the history
+     * again. Runs under the stateLock write lock, which it holds only for this.
+     */
+    private void dropArchived(ArrayList<Recipient> received, ArrayList<BloodUnit> finished) {
+        for (Recipient recipient : received) {
+            if (recipientTable.remove(recipient.getRecipientId()) == null) {
+                removeFromHistory(recipientHistory, recipient.getRecipientId());
+            }
+        }
+        for (BloodUnit unit : finished) {
+            if (bloodUnitTable.get(unit.getUnitId()) != unit) {
+                removeFromHistory(unitHistory, unit.getUnitId());
+                continue;
+            }
+            removeFromUnitTable(unit);
+            unitStore.unitRemoved(unit);
+        }
+    }
+
+    /**
+     * Drops loaded records that are already archived. This happens when the app stopped
+     * after archiving but before the snapshots without those records were written.
+     */
+    private void dropArchivedRecords() {
+        ArrayList<Recipient> recipients = new ArrayList<>();
+        for (Recipient recipient : recipientTable) {
+            if (recipientHistory.contains(recipient.getRecipientId())) {
+                recipients.add(recipient);
+            }
         }
+        for (Recipient recipient : recipients) {
+            recipientTable.remove(recipient.getRecipientId());
+        }
+
+        ArrayList<BloodUnit> units = new ArrayList<>();
+        for (BloodUnit unit : bloodUnitTable) {
+            if (unitHistory.contains(unit.getUnitId())) {
+                units.add(unit);
+            }
+        }
+        for (BloodUnit unit : units) {
+            removeFromUnitTable(unit);
+            unitStore.unitRemoved(unit);
+        }
+    }
+
+    private boolean removeFromHistory(HistoryArchive<?> archive, int id) {
+        try {
+            return archive.remove(id);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error updating history: " + e.getMessage(), e);
+        }
+    }
+
+    private void removeDonorHistory(int donorId) {
+        try {
+            unitHistory.removeOwnedBy(donorId);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error updating history: " + e.getMessage(), e);
+        }
+    }
 
-        if (!unitInpList.isEmpty()) {
-            int maxId = unitInpList.stream().mapToInt(BloodUnit::getUnitId).max().orElse(0);
-            BloodUnit.setNextId(maxId + 1);
+    // Loads the saved next IDs; the highest loaded, replayed or archived IDs (tracked by the
+    // tables and archives as records are added) are only a lower bound for them
+    private void openIdAllocator() {
+        int[] floor = new int[3];
+        floor[IdAllocator.DONOR] = donorTable.maxId() + 1;
+        floor[IdAllocator.RECIPIENT] = Math.max(recipientTable.maxId(), recipientHistory.maxId()) + 1;
+        floor[IdAllocator.UNIT] = Math.max(bloodUnitTable.maxId(), unitHistory.maxId()) + 1;
+        try {
+            this.ids = IdAllocator.open(idFile, floor);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open " + idFile + ": " + e.getMessage(), e);
         }
-        return unitInpList;
     }
 
-    private void saveBloodUnitData() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(bloodUnitFile))) {
-            oos.writeObject(this.bloodUnitList);
-        } catch (Exception e) {
-            System.out.println("Error saving blood unit data: " + e.getMessage());
+    /**
+     * Gets the unit files ready when the data was last kept in the other unit store, since
+     * neither store keeps the other's files up to date: leaving the mapped store exports
+     * its units to bloodUnits.dat, and returning to it deletes the stale mapped file so it
+     * is rebuilt from bloodUnits.dat and the journal.
+     * @return The store recorded last time, or null if none was (data from before the
+     *         store was recorded is used as it is).
+     */
+    private static String prepareUnitStore(String store) {
+        try {
+            String previous = SnapshotFile.read(unitStoreFile, in -> new DataInputStream(in).readUTF());
+            if (previous == null || previous.equals(store)) {
+                return previous;
+            }
+            if (previous.equals(MAPPED_STORE)) {
+                MappedUnitStore.exportSnapshot(mappedUnitFile, bloodUnitFile);
+                System.out.println("Moved blood units from " + mappedUnitFile + " to " + bloodUnitFile + ".");
+            } else {
+                Files.deleteIfExists(Paths.get(mappedUnitFile));
+            }
+            return previous;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not switch the unit store: " + e.getMessage(), e);
+        }
+    }
+
+    private static void recordUnitStore(String store) {
+        try {
+            SnapshotFile.write(unitStoreFile, out -> {
+                DataOutputStream data = new DataOutputStream(out);
+                data.writeUTF(store);
+                data.flush();
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write " + unitStoreFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads the three data files at the same time, each into its table, so startup
+     * takes as long as the largest file rather than the sum of all three.
+     * The history archives build their indexes alongside.
+     */
+    private void loadTablesInParallel() {
+        ExecutorService loader = Executors.newFixedThreadPool(3, r -> {
+            Thread t = new Thread(r, "bloodbank-load");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            Future<RecordTable<Donor>> donors = loader.submit(
+                    () -> new RecordTable<>(Donor::getDonorId, loadDonorData()));
+            Future<RecordTable<BloodUnit>> units = loader.submit(
+                    () -> new RecordTable<>(BloodUnit::getUnitId, loadBloodUnitData()));
+            Future<RecordTable<Recipient>> recipients = loader.submit(
+                    () -> new RecordTable<>(Recipient::getRecipientId, loadRecipientData()));
+            Future<?> histories = loader.submit(() -> {
+                recipientHistory.open();
+                unitHistory.open();
+                return null;
+            });
+            this.donorTable = donors.get();
+            this.bloodUnitTable = units.get();
+            this.recipientTable = recipients.get();
+            histories.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading data", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause(); // e.g. a snapshot that could not be read
+            }
+            throw new IllegalStateException("Error loading data: " + e.getCause(), e.getCause());
+        } finally {
+            loader.shutdown();
+        }
+    }
+
+    // --- Unit Table ---
+
+    // The unit table's monitor also guards unitsByDonor
+    private boolean addToUnitTable(BloodUnit unit) {
+        synchronized (bloodUnitTable) {
+            if (!bloodUnitTable.add(unit)) {
+                return false;
+            }
+            indexByDonor(unit);
+            return true;
+        }
+    }
+
+    private void indexByDonor(BloodUnit unit) {
+        ArrayList<BloodUnit> units = unitsByDonor.get(unit.getDonorId());
+        if (units == null) {
+            units = new ArrayList<>(1); // Usually one unit per donor
+            unitsByDonor.put(unit.getDonorId(), units);
+        }
+        units.add(unit);
+    }
+
+    private void removeFromUnitTable(BloodUnit unit) {
+        synchronized (bloodUnitTable) {
+            bloodUnitTable.remove(unit.getUnitId());
+            ArrayList<BloodUnit> units = unitsByDonor.get(unit.getDonorId());
+            if (units != null) {
+                units.remove(unit);
+                if (units.isEmpty()) {
+                    unitsByDonor.remove(unit.getDonorId());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The lock mask of the donor's blood group and of the groups of their units.
+     */
+    private int groupsOfDonor(int donorId) {
+        int mask = 0;
+        Donor donor = donorTable.get(donorId);
+        if (donor != null) {
+            mask |= GroupLocks.maskOf(BloodGroups.indexOf(donor.getBloodGroup()));
+        }
+        synchronized (bloodUnitTable) {
+            ArrayList<BloodUnit> units = unitsByDonor.get(donorId);
+            if (units != null) {
+                for (BloodUnit unit : units) {
+                    mask |= GroupLocks.maskOf(BloodGroups.indexOf(unit.getBloodGroup()));
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Takes every unit given by the donor out of the unit table.
+     * @return The removed units (empty if there were none).
+     */
+    private ArrayList<BloodUnit> removeUnitsOfDonor(int donorId) {
+        synchronized (bloodUnitTable) {
+            ArrayList<BloodUnit> units = unitsByDonor.remove(donorId);
+            if (units == null) {
+                return new ArrayList<>();
+            }
+            for (BloodUnit unit : units) {
+                bloodUnitTable.remove(unit.getUnitId());
+            }
+            return units;
+        }
+    }
+
+    private ArrayList<Donor> loadDonorData() {
+        return loadSnapshot(donorFile, "Donor", RecordCodec.DONOR);
+    }
+
+    private ArrayList<BloodUnit> loadBloodUnitData() {
+        try {
+            return unitStore.load();
+        } catch (IOException e) {
+            throw new IllegalStateException("Error loading blood unit data: " + e.getMessage(), e);
         }
     }
 
     // --- Recipient Persistence ---
 
-    @SuppressWarnings("unchecked")
     private ArrayList<Recipient> loadRecipientData() {
-        ArrayList<Recipient> recipientInpList = new ArrayList<>();
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(recipientFile))) {
-            recipientInpList = (ArrayList<Recipient>) ois.readObject();
-            System.out.println("Recipient data loaded successfully.");
-        } catch (java.io.FileNotFoundException e) {
-            System.out.println("No recipient save file found. Starting fresh.");
-        } catch (Exception e) {
-            System.out.println("Error loading recipient data: " + e.getMessage());
+        return loadSnapshot(recipientFile, "Recipient", RecordCodec.RECIPIENT);
+    }
+
+    /**
+     * Loads the newest intact generation of a snapshot.
+     * Refuses to start if the file exists but no generation can be read, rather than
+     * starting empty and overwriting the damaged data at the next checkpoint.
+     */
+    static <T> ArrayList<T> loadSnapshot(String fileName, String label, RecordCodec.Format<T> format) {
+        try {
+            ArrayList<T> list = SnapshotFile.read(fileName, in -> readRecords(in, format));
+            if (list == null) {
+                System.out.println("No " + label.toLowerCase() + " save file found. Starting fresh.");
+                return new ArrayList<>();
+            }
+            System.out.println(label + " data loaded successfully.");
+            return list;
+        } catch (IOException e) {
+            throw new IllegalStateException("Error loading " + label.toLowerCase() + " data: " + e.getMessage(), e);
         }
+    }
 
-        // Logic to set the next Recipient ID
-        if (!recipientInpList.isEmpty()) {
-            int maxId = recipientInpList.stream().mapToInt(Recipient::getRecipientId).max().orElse(0);
-            Recipient.setNextId(maxId + 1);
+    /**
+     * Reads a snapshot in the binary record format, or a pre-codec file written with
+     * Java serialization (which is rewritten in the new format at the next checkpoint).
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ArrayList<T> readRecords(InputStream in, RecordCodec.Format<T> format) throws Exception {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(4);
+        int magic = new DataInputStream(buffered).readInt();
+        buffered.reset();
+        if (magic == RecordCodec.FILE_MAGIC) {
+            return RecordCodec.readAll(buffered, format);
         }
-        return recipientInpList;
+        return (ArrayList<T>) new ObjectInputStream(buffered).readObject();
     }
 
-    private void saveRecipientData() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(recipientFile))) {
-            oos.writeObject(this.recipientList);
-        } catch (Exception e) {
-            System.out.println("Error saving recipient data: " + e.getMessage());
+    static <T> void writeSnapshot(String fileName, RecordCodec.Format<T> format, List<T> list)
+            throws IOException {
+        SnapshotFile.write(fileName, out -> RecordCodec.writeAll(out, format, list));
+    }
+
+    // --- Journal Replay ---
+
+    /**
+     * Applies journal records on top of the freshly loaded snapshots.
+     * Every operation is idempotent, so records already contained in a
+     * snapshot (e.g. after a crash during checkpoint) are simply skipped.
+     * Lookups go through the ID-indexed tables.
+     */
+    private class JournalReplayer implements DataJournal.Replayer {
+
+        @Override
+        public void donorAdded(Donor donor) {
+            donorTable.add(donor);
+        }
+
+        @Override
+        public void donorDeleted(int donorId) {
+            donorTable.remove(donorId);
+            for (BloodUnit unit : removeUnitsOfDonor(donorId)) {
+                unitStore.unitRemovedByReplay(unit);
+            }
+            removeDonorHistory(donorId);
+        }
+
+        @Override
+        public void unitAdded(BloodUnit unit) {
+            if (addToUnitTable(unit)) {
+                unitStore.unitReplayed(unit);
+            }
+        }
+
+        @Override
+        public void unitStatusChanged(int unitId, BloodStatus status, Integer recipientId) {
+            BloodUnit unit = bloodUnitTable.get(unitId);
+            if (unit != null) {
+                unit.restoreState(status, recipientId);
+                unitStore.unitReplayed(unit);
+            }
+        }
+
+        @Override
+        public void recipientAdded(Recipient recipient) {
+            recipientTable.add(recipient);
+        }
+
+        @Override
+        public void recipientReceived(int recipientId, LocalDate dateReceived) {
+            Recipient recipient = recipientTable.get(recipientId);
+            if (recipient != null) {
+                recipient.restoreDateReceived(dateReceived);
+            }
+        }
+
+        @Override
+        public void recipientDeleted(int recipientId) {
+            if (recipientTable.remove(recipientId) == null) {
+                removeFromHistory(recipientHistory, recipientId);
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+// File: src/com/bloodBank/model/BloodGroups.java
+package com.bloodBank.model;
+
+/**
+ * The eight ABO/Rh blood groups, in the same order used across the app.
+ * A group's position in ALL is its compact code (used for fixed-width storage,
+ * per-group arrays and the bit position in compatibility masks).
+ */
+public final class BloodGroups {
+
+    public static final String[] ALL = { "A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-" };
+    public static final int COUNT = ALL.length;
+
+    // Red-cell compatibility, one row per RECIPIENT group: bit i is set when
+    // group i can donate to it. Bits, from 0: A+ A- B+ B- AB+ AB- O+ O-
+    private static final int[] DONORS_FOR = {
+        0b11000011, // A+  <- A+ A- O+ O-
+        0b10000010, // A-  <- A- O-
+        0b11001100, // B+  <- B+ B- O+ O-
+        0b10001000, // B-  <- B- O-
+        0b11111111, // AB+ <- everyone
+        0b10101010, // AB- <- A- B- AB- O-
+        0b11000000, // O+  <- O+ O-
+        0b10000000, // O-  <- O-
+    };
+
+    // The same table transposed: one row per DONOR group, bit i set when it can give to group i
+    private static final int[] RECIPIENTS_OF = new int[ALL.length];
+
+    static {
+        for (int recipient = 0; recipient < ALL.length; recipient++) {
+            for (int donor = 0; donor < ALL.length; donor++) {
+                if ((DONORS_FOR[recipient] & (1 << donor)) != 0) {
+                    RECIPIENTS_OF[donor] |= 1 << recipient;
+                }
+            }
+        }
+    }
+
+    private BloodGroups() {
+    }
+
+    /**
+     * @return The code (index in ALL) of the blood group, or -1 if it is not one of the eight.
+     */
+    public static int indexOf(String bloodGroup) {
+        if (bloodGroup == null) {
+            return -1;
+        }
+        String group = bloodGroup.trim().toUpperCase();
+        for (int i = 0; i < COUNT; i++) {
+            if (ALL[i].equals(group)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if red cells of the donor group can be given to the recipient group.
+     */
+    public static boolean canDonate(int donorGroup, int recipientGroup) {
+        return (DONORS_FOR[recipientGroup] & (1 << donorGroup)) != 0;
+    }
+
+    /**
+     * @return A mask with bit i set for every group i that can donate to the recipient group.
+     */
+    static int donorsFor(int recipientGroup) {
+        return DONORS_FOR[recipientGroup];
+    }
+
+    /**
+     * @return A mask with bit i set for every group i that can receive from the donor group.
+     */
+    static int recipientsOf(int donorGroup) {
+        return RECIPIENTS_OF[donorGroup];
+    }
+}
@@ -8,9 +8,8 @@ import java.time.LocalDate;
 public class BloodUnit implements Serializable {
 
     private static final long serialVersionUID = 5L;
-    private static int nextId = 1;
 
-    private int unitId;
+    private int unitId; // 0 until the model adds the unit
     private int donorId;
     private String bloodGroup;
     private LocalDate donationDate;
@@ -18,19 +17,34 @@ public class BloodUnit implements Serializable {
     private BloodStatus status;
     private Integer recipientId; // <-- NEW FIELD (use Integer so it can be null)
 
-    private static final int EXPIRY_WARNING_DAYS = 7;
+    // Units expiring within this many days are flagged, unless the model is configured otherwise
+    public static final int DEFAULT_EXPIRY_WARNING_DAYS = 7;
 
     public BloodUnit(int donorId, String bloodGroup) {
-        this.unitId = nextId++;
+        // unitId stays 0 until the model adds the unit
         this.donorId = donorId;
         this.bloodGroup = bloodGroup;
 
-        this.donationDate = LocalDate.now();
+        this.donationDate = DayClock.current().todayDate();
         this.expiryDate = this.donationDate.plusDays(42);
         this.status = BloodStatus.IN_STOCK;
         this.recipientId = null; // <-- NEW: Explicitly null on creation
     }
 
+    /**
+     * Rebuilds a stored unit exactly as it was saved (used when loading data).
+     */
+    BloodUnit(int unitId, int donorId, String bloodGroup, LocalDate donationDate,
+              LocalDate expiryDate, BloodStatus status, Integer recipientId) {
+        this.unitId = unitId;
+        this.donorId = donorId;
+        this.bloodGroup = bloodGroup;
+        this.donationDate = donationDate;
+        this.expiryDate = expiryDate;
+        this.status = status;
+        this.recipientId = recipientId;
+    }
+
     // --- Getters ---
 
     public int getUnitId() {
@@ -76,21 +90,40 @@ public class BloodUnit implements Serializable {
         this.recipientId = recipientId;
     }
 
+    /**
+     * Restores a status change read back from the journal.
+     */
+    void restoreState(BloodStatus status, Integer recipientId) {
+        this.status = status;
+        this.recipientId = recipientId;
+    }
+
     // --- Logic Methods ---
 
-    public boolean isExpiringSoon() {
+    /**
+     * @param today The current epoch day (see DayClock), so loops can read the clock once.
+     * @param warningDays How many days ahead counts as "soon", e.g. the model's getExpiryWarningDays().
+     */
+    public boolean isExpiringSoon(int today, int warningDays) {
         if (this.status != BloodStatus.IN_STOCK) {
             return false;
         }
-        LocalDate warningDate = LocalDate.now().plusDays(EXPIRY_WARNING_DAYS);
-        return !isExpired() && (this.expiryDate.isBefore(warningDate) || this.expiryDate.isEqual(warningDate));
+        long expiryDay = this.expiryDate.toEpochDay();
+        return expiryDay >= today && expiryDay <= today + warningDays;
     }
 
     public boolean isExpired() {
-        return LocalDate.now().isAfter(this.expiryDate);
+        return isExpired(DayClock.current().today());
+    }
+
+    /**
+     * @param today The current epoch day (see DayClock).
+     */
+    public boolean isExpired(int today) {
+        return this.expiryDate.toEpochDay() < today;
     }
 
-    public static void setNextId(int id) {
-        nextId = id;
+    void assignId(int unitId) {
+        this.unitId = unitId;
     }
 }
\ No newline at end of file
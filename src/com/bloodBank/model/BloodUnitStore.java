@@ -0,0 +1,50 @@
+// File: src/com/bloodBank/model/BloodUnitStore.java
+package com.bloodBank.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Where blood units are persisted. The model always works on BloodUnit objects in memory;
+ * a store only decides how their changes reach the disk.
+ *
+ * Two implementations exist: JournaledUnitStore (the default, journal plus .dat snapshot)
+ * and MappedUnitStore (fixed-size slots in a memory-mapped file). Pick the mapped store
+ * by starting the app with -Dbloodbank.unitStore=mapped; the units are moved over on the
+ * first start after a switch (see MappedUnitStore).
+ */
+interface BloodUnitStore {
+
+    /** Reads every stored unit. Called once, before the journal is replayed. */
+    ArrayList<BloodUnit> load() throws IOException;
+
+    /**
+     * A new unit is being added by the model. Called before the unit enters the tables,
+     * so a failed write (thrown as IllegalStateException) leaves the model without it.
+     */
+    void unitAdded(BloodUnit unit);
+
+    /**
+     * A unit's status or recipient is about to change. Called before the change is applied
+     * to the unit, so a failed write leaves the unit as it was.
+     */
+    void unitChanging(BloodUnit unit, BloodStatus status, Integer recipientId);
+
+    /** A unit was removed (its donor was deleted, or it was moved to the history archive). */
+    void unitRemoved(BloodUnit unit);
+
+    /** A unit was added or changed by journal replay at startup. */
+    void unitReplayed(BloodUnit unit);
+
+    /** A unit was removed by journal replay at startup. */
+    void unitRemovedByReplay(BloodUnit unit);
+
+    /**
+     * Makes everything durable. Runs on the snapshot thread with a copy of the unit list
+     * taken when the checkpoint started.
+     */
+    void checkpoint(List<BloodUnit> units) throws IOException;
+
+    void close();
+}
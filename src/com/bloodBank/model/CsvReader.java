@@ -0,0 +1,147 @@
+// File: src/com/bloodBank/model/CsvReader.java
+package com.bloodBank.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Reads a UTF-8 CSV file one row at a time. Fields are separated by commas; a field
+ * holding commas, quotes or line breaks is put in double quotes, with "" for a quote.
+ *
+ * The file is read through one reused buffer and split character by character, so
+ * memory use does not grow with the file.
+ */
+class CsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int NONE = -2;
+
+    private final FileChannel channel;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE); // Heap buffers take the decoder's fast path
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder field = new StringBuilder(64);
+    private boolean endOfInput;
+    private int pushedBack = NONE;
+    private int lines; // Line breaks read so far
+    private int rowLine; // Line the last row started on
+
+    CsvReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        chars.flip(); // Start empty
+        // Skip the byte order mark some spreadsheet programs write
+        if (fill() && chars.get(chars.position()) == '\uFEFF') {
+            chars.get();
+        }
+    }
+
+    /**
+     * Reads the next row into the list (which is cleared first).
+     * @return false at the end of the file.
+     */
+    boolean nextRow(List<String> row) throws IOException {
+        row.clear();
+        int c = read();
+        if (c < 0) {
+            return false;
+        }
+        rowLine = lines + 1;
+        field.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            if (c < 0) {
+                if (quoted) {
+                    throw new IOException("Line " + rowLine + ": unterminated quoted field");
+                }
+                row.add(field.toString());
+                return true;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue; // Look at the character after the closing quote again
+                    }
+                } else if (c == '\n') {
+                    lines++;
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pushedBack = next;
+                    }
+                }
+                lines++;
+                row.add(field.toString());
+                return true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * @return The line number (from 1) the last row read started on.
+     */
+    int getRowLine() {
+        return rowLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // --- Helpers ---
+
+    private int read() throws IOException {
+        if (pushedBack != NONE) {
+            int c = pushedBack;
+            pushedBack = NONE;
+            return c;
+        }
+        if (!chars.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return chars.get();
+    }
+
+    // Decodes the next chunk of the file into chars
+    private boolean fill() throws IOException {
+        chars.clear();
+        while (chars.position() == 0 && !endOfInput) {
+            if (channel.read(bytes) < 0) {
+                endOfInput = true;
+            }
+            bytes.flip();
+            CoderResult result = decoder.decode(bytes, chars, endOfInput);
+            bytes.compact(); // Keeps a character split across two reads
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (endOfInput) {
+                decoder.flush(chars);
+            }
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+}
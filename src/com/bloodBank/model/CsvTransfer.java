@@ -0,0 +1,417 @@
+// File: src/com/bloodBank/model/CsvTransfer.java
+package com.bloodBank.model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk import and export of donors, recipients and blood units as CSV files, e.g. to
+ * bring in a legacy donor registry. Files are streamed: rows are parsed into batches of
+ * BATCH_SIZE records, and each batch is on disk before the next one is read.
+ *
+ * Run from the data directory while the application is closed:
+ *     java com.bloodBank.model.CsvTransfer import donors donors.csv
+ *     java com.bloodBank.model.CsvTransfer export units units.csv
+ * Import donors before their units.
+ *
+ * Each file starts with a header row naming the columns below. An empty id gives the
+ * record a new ID. Dates are YYYY-MM-DD, as in the forms.
+ */
+public class CsvTransfer {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final int EXPORT_PAGE_SIZE = 1_000;
+
+    private static final String[] PERSON_COLUMNS = { "firstName", "lastName", "fatherName",
+            "motherName", "dob", "mobileNo", "gender", "email", "bloodGroup", "city", "fullAddress" };
+
+    /**
+     * How one kind of record maps to CSV rows.
+     */
+    private interface Table<T> {
+        String[] header();
+        /** @throws IllegalArgumentException With the reason if the row is invalid. */
+        T parse(List<String> row);
+        void write(CsvWriter out, T record) throws IOException;
+        int importBatch(BloodBankModel model, List<T> batch);
+        void exportAll(BloodBankModel model, RecordSink<T> sink) throws IOException;
+    }
+
+    private interface RecordSink<T> {
+        void accept(T record) throws IOException;
+    }
+
+    /**
+     * Counts for one imported file.
+     */
+    public static final class ImportReport {
+        private int rows;
+        private int imported;
+        private int rejected;
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        /** @return Rows that were not valid. */
+        public int getRejected() {
+            return rejected;
+        }
+
+        /** @return Valid rows the model skipped (ID already taken, unknown donor, or a unit
+         *          whose blood group is not its donor's). */
+        public int getSkipped() {
+            return rows - rejected - imported;
+        }
+
+        @Override
+        public String toString() {
+            return rows + " rows: " + imported + " imported, " + rejected + " invalid, "
+                    + getSkipped() + " skipped (ID already taken, unknown donor or blood group mismatch).";
+        }
+    }
+
+    private CsvTransfer() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 3 || !(args[0].equals("import") || args[0].equals("export"))
+                || tableFor(args[1]) == null) {
+            System.out.println("Usage: java com.bloodBank.model.CsvTransfer import|export donors|recipients|units <file.csv>");
+            System.exit(2);
+        }
+        BloodBankModel model = new BloodBankModel();
+        try {
+            Path file = Paths.get(args[2]);
+            if (args[0].equals("import")) {
+                System.out.println(args[2] + ": " + importFile(model, args[1], file));
+            } else {
+                System.out.println(args[2] + ": exported " + exportFile(model, args[1], file) + " records.");
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println(args[2] + ": " + args[0] + " failed: " + e.getMessage());
+            model.close();
+            System.exit(1);
+        }
+        model.close();
+    }
+
+    /**
+     * Imports a CSV file of the given kind ("donors", "recipients" or "units"), then
+     * checkpoints the model. Invalid rows are reported and left out.
+     * @throws IOException If the file cannot be read or has the wrong header.
+     */
+    public static ImportReport importFile(BloodBankModel model, String kind, Path file) throws IOException {
+        ImportReport report = importRows(model, table(kind), file);
+        model.checkpoint(); // One snapshot for the whole import instead of one every few batches
+        return report;
+    }
+
+    /**
+     * Writes every record of the given kind, history included, to a CSV file.
+     * @return The number of records written.
+     */
+    public static int exportFile(BloodBankModel model, String kind, Path file) throws IOException {
+        return exportRows(model, table(kind), file);
+    }
+
+    // --- Import / Export ---
+
+    private static <T> ImportReport importRows(BloodBankModel model, Table<T> table, Path file) throws IOException {
+        ImportReport report = new ImportReport();
+        ArrayList<String> row = new ArrayList<>(16);
+        ArrayList<T> batch = new ArrayList<>(BATCH_SIZE);
+        int columns = table.header().length;
+
+        try (CsvReader in = new CsvReader(file)) {
+            if (!in.nextRow(row) || !matchesHeader(row, table.header())) {
+                throw new IOException("expected the header row " + String.join(",", table.header()));
+            }
+            while (in.nextRow(row)) {
+                if (row.size() == 1 && row.get(0).isEmpty()) {
+                    continue; // Blank line
+                }
+                report.rows++;
+                try {
+                    if (row.size() != columns) {
+                        throw new IllegalArgumentException("expected " + columns + " columns, found " + row.size());
+                    }
+                    batch.add(table.parse(row));
+                } catch (IllegalArgumentException e) {
+                    if (report.rejected++ < MAX_REPORTED_ERRORS) {
+                        System.out.println("Line " + in.getRowLine() + ": " + e.getMessage());
+                    }
+                    continue;
+                }
+                if (batch.size() == BATCH_SIZE) {
+                    report.imported += table.importBatch(model, batch);
+                    batch.clear();
+                }
+            }
+        }
+        report.imported += table.importBatch(model, batch);
+        if (report.rejected > MAX_REPORTED_ERRORS) {
+            System.out.println("... and " + (report.rejected - MAX_REPORTED_ERRORS) + " more invalid rows.");
+        }
+        return report;
+    }
+
+    private static <T> int exportRows(BloodBankModel model, Table<T> table, Path file) throws IOException {
+        int[] written = new int[1];
+        try (CsvWriter out = new CsvWriter(file)) {
+            for (String column : table.header()) {
+                out.field(column);
+            }
+            out.endRow();
+            table.exportAll(model, record -> {
+                table.write(out, record);
+                out.endRow();
+                written[0]++;
+            });
+        }
+        return written[0];
+    }
+
+    // Archived records first (a page at a time), then the active ones
+    private static <T> void exportListing(RecordListing<T> listing, HistoryPages<T> history,
+                                          RecordSink<T> sink) throws IOException {
+        for (int from = 0; from < listing.getHistoryCount(); from += EXPORT_PAGE_SIZE) {
+            for (T record : history.read(from, EXPORT_PAGE_SIZE)) {
+                sink.accept(record);
+            }
+        }
+        for (T record : listing.getActive()) {
+            sink.accept(record);
+        }
+    }
+
+    private interface HistoryPages<T> {
+        List<T> read(int from, int count);
+    }
+
+    // --- Tables ---
+
+    private static Table<?> tableFor(String kind) {
+        switch (kind) {
+            case "donors":
+                return DONORS;
+            case "recipients":
+                return RECIPIENTS;
+            case "units":
+                return UNITS;
+            default:
+                return null;
+        }
+    }
+
+    private static Table<?> table(String kind) {
+        Table<?> table = tableFor(kind);
+        if (table == null) {
+            throw new IllegalArgumentException("Unknown record kind: " + kind);
+        }
+        return table;
+    }
+
+    private static final Table<Donor> DONORS = new Table<Donor>() {
+        @Override
+        public String[] header() {
+            return withPersonColumns("id");
+        }
+
+        @Override
+        public Donor parse(List<String> row) {
+            requirePersonFields(row);
+            return new Donor(parseId(row.get(0), "id"), row.get(1), row.get(2), row.get(3), row.get(4),
+                    requiredDate(row.get(5), "dob"), row.get(6), row.get(7), row.get(8),
+                    bloodGroup(row.get(9)), row.get(10), row.get(11));
+        }
+
+        @Override
+        public void write(CsvWriter out, Donor donor) throws IOException {
+            out.field(donor.getDonorId());
+            writePerson(out, donor);
+        }
+
+        @Override
+        public int importBatch(BloodBankModel model, List<Donor> batch) {
+            return model.importDonors(batch);
+        }
+
+        @Override
+        public void exportAll(BloodBankModel model, RecordSink<Donor> sink) throws IOException {
+            for (Donor donor : model.getDonors()) {
+                sink.accept(donor);
+            }
+        }
+    };
+
+    private static final Table<Recipient> RECIPIENTS = new Table<Recipient>() {
+        @Override
+        public String[] header() {
+            return withPersonColumns("id", "reasonForTransfusion", "dateReceived");
+        }
+
+        @Override
+        public Recipient parse(List<String> row) {
+            requirePersonFields(row);
+            return new Recipient(parseId(row.get(0), "id"), row.get(1), row.get(2), row.get(3), row.get(4),
+                    requiredDate(row.get(5), "dob"), row.get(6), row.get(7), row.get(8),
+                    bloodGroup(row.get(9)), row.get(10), row.get(11), row.get(12),
+                    optionalDate(row.get(13), "dateReceived"));
+        }
+
+        @Override
+        public void write(CsvWriter out, Recipient recipient) throws IOException {
+            out.field(recipient.getRecipientId());
+            writePerson(out, recipient);
+            out.field(recipient.getReasonForTransfusion());
+            out.field(recipient.getDateReceived());
+        }
+
+        @Override
+        public int importBatch(BloodBankModel model, List<Recipient> batch) {
+            return model.importRecipients(batch);
+        }
+
+        @Override
+        public void exportAll(BloodBankModel model, RecordSink<Recipient> sink) throws IOException {
+            exportListing(model.listRecipients(), model::getRecipientHistory, sink);
+        }
+    };
+
+    private static final Table<BloodUnit> UNITS = new Table<BloodUnit>() {
+        @Override
+        public String[] header() {
+            return new String[] { "id", "donorId", "bloodGroup", "donationDate", "expiryDate",
+                    "status", "recipientId" };
+        }
+
+        @Override
+        public BloodUnit parse(List<String> row) {
+            int donorId = parseId(row.get(1), "donorId");
+            if (donorId == 0) {
+                throw new IllegalArgumentException("donorId is required");
+            }
+            BloodStatus status;
+            try {
+                status = BloodStatus.valueOf(row.get(5).trim());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("unknown status '" + row.get(5) + "'");
+            }
+            int recipientId = parseId(row.get(6), "recipientId");
+            return new BloodUnit(parseId(row.get(0), "id"), donorId, bloodGroup(row.get(2)),
+                    requiredDate(row.get(3), "donationDate"), requiredDate(row.get(4), "expiryDate"),
+                    status, recipientId == 0 ? null : recipientId);
+        }
+
+        @Override
+        public void write(CsvWriter out, BloodUnit unit) throws IOException {
+            out.field(unit.getUnitId());
+            out.field(unit.getDonorId());
+            out.field(unit.getBloodGroup());
+            out.field(unit.getDonationDate());
+            out.field(unit.getExpiryDate());
+            out.field(unit.getStatus());
+            out.field(unit.getRecipientId());
+        }
+
+        @Override
+        public int importBatch(BloodBankModel model, List<BloodUnit> batch) {
+            return model.importUnits(batch);
+        }
+
+        @Override
+        public void exportAll(BloodBankModel model, RecordSink<BloodUnit> sink) throws IOException {
+            exportListing(model.listBloodUnits(), model::getUnitHistory, sink);
+        }
+    };
+
+    // --- Helpers ---
+
+    private static String[] withPersonColumns(String first, String... last) {
+        String[] header = new String[1 + PERSON_COLUMNS.length + last.length];
+        header[0] = first;
+        System.arraycopy(PERSON_COLUMNS, 0, header, 1, PERSON_COLUMNS.length);
+        System.arraycopy(last, 0, header, 1 + PERSON_COLUMNS.length, last.length);
+        return header;
+    }
+
+    private static void writePerson(CsvWriter out, Person person) throws IOException {
+        out.field(person.getFirstName());
+        out.field(person.getLastName());
+        out.field(person.getFatherName());
+        out.field(person.getMotherName());
+        out.field(person.getDob());
+        out.field(person.getMobileNo());
+        out.field(person.getGender());
+        out.field(person.getEmail());
+        out.field(person.getBloodGroup());
+        out.field(person.getCity());
+        out.field(person.getFullAddress());
+    }
+
+    private static boolean matchesHeader(List<String> row, String[] header) {
+        if (row.size() != header.length) {
+            return false;
+        }
+        for (int i = 0; i < header.length; i++) {
+            if (!row.get(i).trim().equalsIgnoreCase(header[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The same fields the add forms insist on (dob and bloodGroup are checked when parsed)
+    private static void requirePersonFields(List<String> row) {
+        if (row.get(1).trim().isEmpty() || row.get(2).trim().isEmpty() || row.get(6).trim().isEmpty()) {
+            throw new IllegalArgumentException("firstName, lastName and mobileNo are required");
+        }
+    }
+
+    // Empty means "no ID" (0)
+    private static int parseId(String text, String column) {
+        String value = text.trim();
+        if (value.isEmpty()) {
+            return 0;
+        }
+        int id = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9' || id > (Integer.MAX_VALUE - 9) / 10) {
+                throw new IllegalArgumentException(column + " '" + text + "' is not a valid ID");
+            }
+            id = id * 10 + (c - '0');
+        }
+        return id;
+    }
+
+    private static LocalDate requiredDate(String text, String column) {
+        LocalDate date = Dates.parseOrNull(text.trim());
+        if (date == null) {
+            throw new IllegalArgumentException(column + " '" + text + "' is not a date (YYYY-MM-DD)");
+        }
+        return date;
+    }
+
+    private static LocalDate optionalDate(String text, String column) {
+        return text.trim().isEmpty() ? null : requiredDate(text, column);
+    }
+
+    private static String bloodGroup(String text) {
+        String group = text.trim();
+        if (BloodGroups.indexOf(group) < 0) {
+            throw new IllegalArgumentException("unknown blood group '" + text + "'");
+        }
+        return BloodGroups.ALL[BloodGroups.indexOf(group)];
+    }
+}
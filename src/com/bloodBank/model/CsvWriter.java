@@ -0,0 +1,133 @@
+// File: src/com/bloodBank/model/CsvWriter.java
+package com.bloodBank.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a UTF-8 CSV file in the format CsvReader reads, through one reused buffer.
+ * Only fields that need it are quoted.
+ */
+class CsvWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE * 3); // Heap buffers take the encoder's fast path
+    private boolean rowStarted;
+
+    CsvWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Writes the next field of the current row. null is written as an empty field.
+     */
+    CsvWriter field(String value) throws IOException {
+        if (rowStarted) {
+            put(',');
+        }
+        rowStarted = true;
+        if (value == null) {
+            return this;
+        }
+        if (!needsQuotes(value)) {
+            for (int i = 0; i < value.length(); i++) {
+                put(value.charAt(i));
+            }
+            return this;
+        }
+        put('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                put('"');
+            }
+            put(c);
+        }
+        put('"');
+        return this;
+    }
+
+    CsvWriter field(Object value) throws IOException {
+        return field(value == null ? null : value.toString());
+    }
+
+    CsvWriter field(int value) throws IOException {
+        return field(Integer.toString(value));
+    }
+
+    void endRow() throws IOException {
+        put('\n');
+        rowStarted = false;
+    }
+
+    /**
+     * Writes out what is buffered, forces the file to disk and closes it.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            encode(true);
+            encoder.flush(bytes);
+            drain();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    // --- Helpers ---
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void put(char c) throws IOException {
+        if (!chars.hasRemaining()) {
+            encode(false);
+        }
+        chars.put(c);
+    }
+
+    private void encode(boolean endOfInput) throws IOException {
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                result.throwException();
+            }
+        }
+        chars.compact(); // Keeps half of a surrogate pair for the next round
+        drain();
+    }
+
+    private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
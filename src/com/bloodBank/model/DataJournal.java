@@ -0,0 +1,390 @@
+// File: src/com/bloodBank/model/DataJournal.java
+package com.bloodBank.model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of every change made to the model since the last snapshot.
+ * Instead of rewriting a whole .dat file for each change, the model appends one
+ * small record here. Records are flushed to disk in batches (group commit) and
+ * replayed on top of the .dat snapshots at startup.
+ *
+ * At each checkpoint the log is rotated to a "previous" file rather than deleted. Replaying
+ * both files lets a snapshot that fell back to its older generation catch up again.
+ *
+ * Record layout: [int length][byte type][payload][int crc32 of type+payload]
+ */
+class DataJournal {
+
+    // --- Record types ---
+    static final byte DONOR_DELETED = 2;
+    static final byte UNIT_STATUS = 4;
+    static final byte RECIPIENT_RECEIVED = 6;
+    static final byte RECIPIENT_DELETED = 7;
+    static final byte DONOR_ADDED = 8;
+    static final byte UNIT_ADDED = 9;
+    static final byte RECIPIENT_ADDED = 10;
+    // Types 1, 3 and 5 held Java-serialized records in early journals; never reuse them
+
+    // Force the log to disk once this many records are waiting...
+    private static final int MAX_PENDING_RECORDS = 256;
+    // ...or at least this often while there is anything unsynced
+    private static final long SYNC_INTERVAL_MS = 200;
+
+    private static final BloodStatus[] BLOOD_STATUSES = BloodStatus.values();
+
+    /**
+     * Receives the changes read back from the log at startup.
+     * The model implements this to rebuild its lists.
+     */
+    interface Replayer {
+        void donorAdded(Donor donor);
+        void donorDeleted(int donorId);
+        void unitAdded(BloodUnit unit);
+        void unitStatusChanged(int unitId, BloodStatus status, Integer recipientId);
+        void recipientAdded(Recipient recipient);
+        void recipientReceived(int recipientId, LocalDate dateReceived);
+        void recipientDeleted(int recipientId);
+    }
+
+    private final Path path;
+    private final Path previousPath;
+    private FileChannel channel;
+    private DataOutputStream out;
+    private final ByteArrayOutputStream scratch = new ByteArrayOutputStream(256);
+    private final CRC32 crc = new CRC32();
+    private final ScheduledExecutorService syncer;
+
+    private int pendingRecords; // Written but not yet forced to disk
+    private int bulkWriters; // While above 0, only the timer and sync() force the log
+    private int recordCount; // Records since the last checkpoint
+    private IOException failure; // The first write error; nothing more is written after it
+
+    private DataJournal(Path path, Path previousPath, long validLength, int recordCount) throws IOException {
+        this.path = path;
+        this.previousPath = previousPath;
+        this.recordCount = recordCount;
+        openChannel(validLength);
+
+        this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "bloodbank-journal-sync");
+            t.setDaemon(true);
+            return t;
+        });
+        this.syncer.scheduleWithFixedDelay(this::syncQuietly,
+                SYNC_INTERVAL_MS, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Replays the previous and current journal (if any) into the given replayer and
+     * opens the current one for appending.
+     * A torn record at the end of a file (e.g. from a crash mid-write) is discarded.
+     */
+    static DataJournal open(String fileName, String previousFileName, Replayer replayer) throws IOException {
+        Path path = Paths.get(fileName);
+        Path previousPath = Paths.get(previousFileName);
+
+        int[] records = new int[1];
+        replay(previousPath, replayer, records);
+        records[0] = 0; // Only the current file counts towards the next checkpoint
+        long validLength = replay(path, replayer, records);
+
+        return new DataJournal(path, previousPath, validLength, records[0]);
+    }
+
+    /**
+     * Applies every intact record in the file.
+     * @return The length of the intact prefix of the file.
+     */
+    private static long replay(Path file, Replayer replayer, int[] records) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        byte[] data = Files.readAllBytes(file);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        CRC32 check = new CRC32();
+        long validLength = 0;
+        int replayed = 0;
+        while (true) {
+            try {
+                int length = in.readInt();
+                if (length <= 0 || length > data.length) {
+                    break; // Garbage length, the tail is torn
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                int storedCrc = in.readInt();
+                check.reset();
+                check.update(body, 0, body.length);
+                if ((int) check.getValue() != storedCrc) {
+                    break;
+                }
+                apply(body, replayer);
+                validLength += 4 + length + 4;
+                replayed++;
+            } catch (EOFException e) {
+                break;
+            }
+        }
+        if (validLength < data.length) {
+            System.out.println("Journal: discarded " + (data.length - validLength) + " bytes of torn tail in "
+                    + file.getFileName() + ".");
+        }
+        if (replayed > 0) {
+            System.out.println("Journal: replayed " + replayed + " records from " + file.getFileName() + ".");
+        }
+        records[0] += replayed;
+        return validLength;
+    }
+
+    // --- Appending ---
+
+    synchronized void donorAdded(Donor donor) {
+        DataOutputStream rec = begin(DONOR_ADDED);
+        writeRecord(rec, RecordCodec.DONOR, donor);
+        commit();
+    }
+
+    synchronized void donorDeleted(int donorId) {
+        DataOutputStream rec = begin(DONOR_DELETED);
+        writeInt(rec, donorId);
+        commit();
+    }
+
+    synchronized void unitAdded(BloodUnit unit) {
+        DataOutputStream rec = begin(UNIT_ADDED);
+        writeRecord(rec, RecordCodec.UNIT, unit);
+        commit();
+    }
+
+    /**
+     * Logs a unit's new status, before the model applies it.
+     */
+    synchronized void unitStatusChanged(int unitId, BloodStatus status, Integer recipientId) {
+        DataOutputStream rec = begin(UNIT_STATUS);
+        try {
+            rec.writeInt(unitId);
+            rec.writeByte(status.ordinal());
+            rec.writeInt(recipientId == null ? -1 : recipientId);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        commit();
+    }
+
+    synchronized void recipientAdded(Recipient recipient) {
+        DataOutputStream rec = begin(RECIPIENT_ADDED);
+        writeRecord(rec, RecordCodec.RECIPIENT, recipient);
+        commit();
+    }
+
+    /**
+     * Logs that a recipient got their unit, before the model marks them.
+     */
+    synchronized void recipientReceived(int recipientId, LocalDate dateReceived) {
+        DataOutputStream rec = begin(RECIPIENT_RECEIVED);
+        try {
+            rec.writeInt(recipientId);
+            rec.writeLong(dateReceived.toEpochDay());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        commit();
+    }
+
+    synchronized void recipientDeleted(int recipientId) {
+        DataOutputStream rec = begin(RECIPIENT_DELETED);
+        writeInt(rec, recipientId);
+        commit();
+    }
+
+    /**
+     * @return The number of records written since the journal was last truncated.
+     */
+    synchronized int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Starts logging a bulk batch: records are no longer forced to disk every
+     * MAX_PENDING_RECORDS, as the caller syncs once when the batch is done.
+     */
+    synchronized void beginBulk() {
+        bulkWriters++;
+    }
+
+    /**
+     * Ends a bulk batch started with beginBulk(). The caller then calls sync().
+     */
+    synchronized void endBulk() {
+        bulkWriters--;
+    }
+
+    /**
+     * Forces every buffered record to disk.
+     */
+    synchronized void sync() throws IOException {
+        checkUsable();
+        if (pendingRecords == 0) {
+            return;
+        }
+        try {
+            out.flush();
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+        pendingRecords = 0;
+    }
+
+    /**
+     * Starts a new, empty journal. Called when a checkpoint takes its copy of the data:
+     * everything logged so far goes into those snapshots, so the current file only needs
+     * to be kept as the "previous" journal until the next checkpoint.
+     */
+    synchronized void rotate() throws IOException {
+        sync();
+        out.close();
+        Files.move(path, previousPath, StandardCopyOption.REPLACE_EXISTING);
+        openChannel(0);
+        channel.force(true);
+        recordCount = 0;
+    }
+
+    synchronized void close() {
+        syncer.shutdown();
+        try {
+            sync();
+            out.close();
+        } catch (IOException e) {
+            System.out.println("Error closing journal: " + e.getMessage());
+        }
+    }
+
+    // --- Helpers ---
+
+    private void openChannel(long validLength) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(validLength); // Drop any torn tail before appending
+        channel.position(validLength);
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+    }
+
+    private DataOutputStream begin(byte type) {
+        scratch.reset();
+        scratch.write(type);
+        return new DataOutputStream(scratch);
+    }
+
+    // Appends the record; a failed write is thrown, so the caller does not apply the change
+    private void commit() {
+        byte[] body = scratch.toByteArray();
+        crc.reset();
+        crc.update(body, 0, body.length);
+        try {
+            checkUsable();
+            try {
+                out.writeInt(body.length);
+                out.write(body);
+                out.writeInt((int) crc.getValue());
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+            recordCount++;
+            if (++pendingRecords >= MAX_PENDING_RECORDS && bulkWriters == 0) {
+                sync();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Error writing journal: " + e.getMessage(), e);
+        }
+    }
+
+    // After a failed write the file may end in a torn record, which replay stops at, so
+    // anything appended after it would be lost: refuse all writes until the app restarts
+    private void checkUsable() throws IOException {
+        if (failure != null) {
+            throw new IOException("journal is unusable after an earlier error (" + failure.getMessage() + ")", failure);
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            System.out.println("Error syncing journal: " + e.getMessage());
+        }
+    }
+
+    private static void writeInt(DataOutputStream rec, int value) {
+        try {
+            rec.writeInt(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> void writeRecord(DataOutputStream rec, RecordCodec.Format<T> format, T record) {
+        try {
+            format.write(rec, record);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void apply(byte[] body, Replayer replayer) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body, 1, body.length - 1));
+        switch (body[0]) {
+            case DONOR_ADDED:
+                replayer.donorAdded(RecordCodec.DONOR.read(in));
+                break;
+            case DONOR_DELETED:
+                replayer.donorDeleted(in.readInt());
+                break;
+            case UNIT_ADDED:
+                replayer.unitAdded(RecordCodec.UNIT.read(in));
+                break;
+            case UNIT_STATUS: {
+                int unitId = in.readInt();
+                byte ordinal = in.readByte();
+                if (ordinal < 0 || ordinal >= BLOOD_STATUSES.length) {
+                    throw new IOException("Unknown blood status " + ordinal + " for unit " + unitId);
+                }
+                BloodStatus status = BLOOD_STATUSES[ordinal];
+                int recipientId = in.readInt();
+                replayer.unitStatusChanged(unitId, status, recipientId < 0 ? null : recipientId);
+                break;
+            }
+            case RECIPIENT_ADDED:
+                replayer.recipientAdded(RecordCodec.RECIPIENT.read(in));
+                break;
+            case RECIPIENT_RECEIVED:
+                replayer.recipientReceived(in.readInt(), LocalDate.ofEpochDay(in.readLong()));
+                break;
+            case RECIPIENT_DELETED:
+                replayer.recipientDeleted(in.readInt());
+                break;
+            default:
+                throw new IOException("Unknown journal record type " + body[0]);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+// File: src/com/bloodBank/model/DataMigrator.java
+package com.bloodBank.model;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+
+/**
+ * One-shot conversion of the .dat files from Java serialization to the binary
+ * record format. The model also reads the old format and converts it at its next
+ * checkpoint; this tool does it up front so the first startup is already fast.
+ *
+ * Run from the data directory while the application is closed:
+ *     java com.bloodBank.model.DataMigrator
+ * The original files are kept as *.legacy.
+ */
+public class DataMigrator {
+
+    public static void main(String[] args) {
+        boolean ok = true;
+        ok &= migrate(BloodBankModel.donorFile, RecordCodec.DONOR);
+        ok &= migrate(BloodBankModel.bloodUnitFile, RecordCodec.UNIT);
+        ok &= migrate(BloodBankModel.recipientFile, RecordCodec.RECIPIENT);
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static <T> boolean migrate(String fileName, RecordCodec.Format<T> format) {
+        Path path = Paths.get(fileName);
+        if (!Files.exists(path)) {
+            System.out.println(fileName + ": not found, skipped.");
+            return true;
+        }
+        try {
+            if (isRecordFile(path)) {
+                System.out.println(fileName + ": already in the binary format.");
+                return true;
+            }
+
+            ArrayList<T> records = SnapshotFile.read(fileName, in -> BloodBankModel.readRecords(in, format));
+            long oldSize = Files.size(path);
+
+            Files.copy(path, Paths.get(fileName + ".legacy"), StandardCopyOption.REPLACE_EXISTING);
+            SnapshotFile.write(fileName, out -> RecordCodec.writeAll(out, format, records));
+
+            System.out.println(fileName + ": migrated " + records.size() + " records ("
+                    + oldSize + " -> " + Files.size(path) + " bytes).");
+            return true;
+        } catch (IOException e) {
+            System.out.println(fileName + ": migration failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean isRecordFile(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return new DataInputStream(in).readInt() == RecordCodec.FILE_MAGIC;
+        } catch (java.io.EOFException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+// File: src/com/bloodBank/model/Dates.java
+package com.bloodBank.model;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Date input shared by the forms and the CSV import, so both accept the same values.
+ */
+public final class Dates {
+
+    private Dates() {
+    }
+
+    /**
+     * Parses a YYYY-MM-DD date, accepting exactly what LocalDate.parse accepts.
+     * @return The date, or null if the text is not a valid date.
+     */
+    public static LocalDate parseOrNull(String text) {
+        // Plain YYYY-MM-DD is read directly; bulk imports parse millions of these
+        if (text.length() == 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 7);
+            int day = digits(text, 8, 10);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return LocalDate.of(year, month, day);
+                } catch (DateTimeException ex) {
+                    return null; // e.g. month 13 or February 30
+                }
+            }
+        }
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException ex) {
+            return null; // If Failed
+        }
+    }
+
+    // The number in text[from, to), or -1 if any of it is not an ASCII digit
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
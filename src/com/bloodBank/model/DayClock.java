@@ -0,0 +1,107 @@
+// File: src/com/bloodBank/model/DayClock.java
+package com.bloodBank.model;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Today's date, for expiry checks and date stamps. The day is cached as an epoch day
+ * together with the instant it ends, so asking for it costs one millisecond read until
+ * midnight instead of a time zone lookup per call.
+ *
+ * The model, BloodUnit and the views all use DayClock.current(). Tests can swap in a
+ * fixed clock with setCurrent(DayClock.fixed(...)).
+ */
+public final class DayClock {
+
+    private static volatile DayClock current = system();
+
+    /** One cached day: its epoch day and the instants (in millis) it starts and ends. */
+    private static final class Day {
+        final int epochDay;
+        final long start;
+        final long end;
+
+        Day(int epochDay, long start, long end) {
+            this.epochDay = epochDay;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private final Clock clock;
+    private volatile Day day;
+
+    private DayClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @return A clock that follows the system clock in the default time zone.
+     */
+    public static DayClock system() {
+        return new DayClock(Clock.systemDefaultZone());
+    }
+
+    /**
+     * @return A clock that always reports the given day.
+     */
+    public static DayClock fixed(LocalDate date) {
+        return new DayClock(Clock.fixed(date.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC));
+    }
+
+    /**
+     * @return A clock that follows the given java.time clock and its zone.
+     */
+    public static DayClock of(Clock clock) {
+        return new DayClock(clock);
+    }
+
+    public static DayClock current() {
+        return current;
+    }
+
+    public static void setCurrent(DayClock clock) {
+        current = clock;
+    }
+
+    /**
+     * @return Today as an epoch day (days since 1970-01-01).
+     */
+    public int today() {
+        return dayAt(clock.millis()).epochDay;
+    }
+
+    public LocalDate todayDate() {
+        return LocalDate.ofEpochDay(today());
+    }
+
+    /**
+     * @return Milliseconds until today ends, i.e. until the next midnight in the clock's zone.
+     */
+    public long millisUntilTomorrow() {
+        long now = clock.millis();
+        return dayAt(now).end - now;
+    }
+
+    private Day dayAt(long now) {
+        Day cached = day;
+        if (cached == null || now < cached.start || now >= cached.end) {
+            cached = computeDay(now);
+            day = cached;
+        }
+        return cached;
+    }
+
+    // Works out the day containing now, with its bounds in the clock's zone (so DST days fit)
+    private Day computeDay(long now) {
+        ZoneId zone = clock.getZone();
+        LocalDate date = Instant.ofEpochMilli(now).atZone(zone).toLocalDate();
+        long start = date.atStartOfDay(zone).toInstant().toEpochMilli();
+        long end = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        return new Day((int) date.toEpochDay(), start, end);
+    }
+}
@@ -9,8 +9,7 @@ public class Donor extends Person {
     private static final long serialVersionUID = 3L; 
 
     // --- Donor-specific fields ---
-    private static int nextId = 1;
-    private int donorId;
+    private int donorId; // 0 until the model registers the donor
 
     public Donor(String firstName, String lastName, String fatherName, String motherName,
                  LocalDate dob, String mobileNo, String gender, String email,
@@ -20,8 +19,19 @@ public class Donor extends Person {
         super(firstName, lastName, fatherName, motherName, dob, mobileNo, 
               gender, email, bloodGroup, city, fullAddress);
 
-        // 2. Set the DONOR-specific info
-        this.donorId = nextId++;
+        // 2. The DONOR-specific ID is assigned by the model when the donor is added
+    }
+
+    /**
+     * Rebuilds a stored donor with its existing ID (used when loading data).
+     */
+    Donor(int donorId, String firstName, String lastName, String fatherName, String motherName,
+          LocalDate dob, String mobileNo, String gender, String email,
+          String bloodGroup, String city, String fullAddress) {
+
+        super(firstName, lastName, fatherName, motherName, dob, mobileNo,
+              gender, email, bloodGroup, city, fullAddress);
+        this.donorId = donorId;
     }
 
     // --- Donor-specific methods ---
@@ -30,8 +40,8 @@ public class Donor extends Person {
         return donorId;
     }
 
-    public static void setNextId(int id) {
-        nextId = id;
+    void assignId(int donorId) {
+        this.donorId = donorId;
     }
 
     @Override
@@ -0,0 +1,72 @@
+// File: src/com/bloodBank/model/DonorIntakeResult.java
+package com.bloodBank.model;
+
+/**
+ * What happened to one donor added by BloodBankModel.addDonors: the blood unit
+ * created for them, and the waiting recipient it went to straight away, if any.
+ * A donor whose ID was already registered is skipped and gets no unit.
+ */
+public final class DonorIntakeResult {
+
+    private final Donor donor;
+    private final BloodUnit unit;
+    private final Recipient autoIssuedTo;
+
+    DonorIntakeResult(Donor donor, BloodUnit unit, Recipient autoIssuedTo) {
+        this.donor = donor;
+        this.unit = unit;
+        this.autoIssuedTo = autoIssuedTo;
+    }
+
+    static DonorIntakeResult alreadyRegistered(Donor donor) {
+        return new DonorIntakeResult(donor, null, null);
+    }
+
+    public Donor getDonor() {
+        return donor;
+    }
+
+    /**
+     * @return false if the donor was already registered, so nothing was added.
+     */
+    public boolean wasAdded() {
+        return unit != null;
+    }
+
+    /**
+     * @return The new unit, or null if the donor was already registered.
+     */
+    public BloodUnit getUnit() {
+        return unit;
+    }
+
+    /**
+     * @return The waiting recipient who was given the new unit, or null if it went into stock.
+     */
+    public Recipient getAutoIssuedTo() {
+        return autoIssuedTo;
+    }
+
+    public boolean wasAutoIssued() {
+        return autoIssuedTo != null;
+    }
+
+    /**
+     * @return The message shown to the user for this donor.
+     */
+    public String getMessage() {
+        if (unit == null) {
+            return "Donor ID " + donor.getDonorId() + " is already registered. No unit was added.";
+        }
+        if (autoIssuedTo == null) {
+            return "Donor added successfully. Unit " + unit.getUnitId() + " is now in stock.";
+        }
+        return "Donor added successfully.\n" + getAutoIssueMessage();
+    }
+
+    String getAutoIssueMessage() {
+        return "Auto-issued new unit " + unit.getUnitId() +
+               " to waiting recipient: " + autoIssuedTo.getFirstName() +
+               " (ID: " + autoIssuedTo.getRecipientId() + ")";
+    }
+}
@@ -0,0 +1,23 @@
+// File: src/com/bloodBank/model/FefoAllocationPolicy.java
+package com.bloodBank.model;
+
+import java.util.Comparator;
+
+/**
+ * Issues the unit with the earliest expiry date first, so older stock is used
+ * before it expires and wastage stays low. This is the default policy.
+ */
+public class FefoAllocationPolicy implements AllocationPolicy {
+
+    private static final Comparator<BloodUnit> ORDER = Comparator.comparing(BloodUnit::getExpiryDate);
+
+    @Override
+    public Comparator<BloodUnit> issueOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public String toString() {
+        return "FEFO";
+    }
+}
@@ -0,0 +1,22 @@
+// File: src/com/bloodBank/model/FifoAllocationPolicy.java
+package com.bloodBank.model;
+
+import java.util.Comparator;
+
+/**
+ * Issues units in the order they were donated.
+ */
+public class FifoAllocationPolicy implements AllocationPolicy {
+
+    private static final Comparator<BloodUnit> ORDER = Comparator.comparing(BloodUnit::getDonationDate);
+
+    @Override
+    public Comparator<BloodUnit> issueOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public String toString() {
+        return "FIFO";
+    }
+}
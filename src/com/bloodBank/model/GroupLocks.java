@@ -0,0 +1,48 @@
+// File: src/com/bloodBank/model/GroupLocks.java
+package com.bloodBank.model;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One lock per blood group. Lock i guards group i's in-stock units in the
+ * InventoryIndex and its queue in the WaitingList, so work on unrelated groups
+ * never contends.
+ *
+ * Several groups are locked with a bitmask (bit i = group i, as in BloodGroups)
+ * and always in ascending group order, so two threads can never deadlock.
+ */
+class GroupLocks {
+
+    static final int ALL = (1 << BloodGroups.COUNT) - 1;
+
+    private final ReentrantLock[] locks = new ReentrantLock[BloodGroups.COUNT];
+
+    GroupLocks() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * @return The mask holding just this group, or 0 for an unknown group (-1).
+     */
+    static int maskOf(int group) {
+        return group < 0 ? 0 : 1 << group;
+    }
+
+    void lock(int mask) {
+        for (int group = 0; group < locks.length; group++) {
+            if ((mask & (1 << group)) != 0) {
+                locks[group].lock();
+            }
+        }
+    }
+
+    void unlock(int mask) {
+        for (int group = locks.length - 1; group >= 0; group--) {
+            if ((mask & (1 << group)) != 0) {
+                locks[group].unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,342 @@
+// File: src/com/bloodBank/model/HistoryArchive.java
+package com.bloodBank.model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.function.ToIntFunction;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of finished records (received recipients, issued or expired units)
+ * that no longer need to stay on the heap. Only a small index entry per record is kept
+ * in memory; the records themselves are read back a page at a time when a view scrolls
+ * to them.
+ *
+ * Deleting an archived record appends a tombstone rather than rewriting the file.
+ *
+ * File layout: [int MAGIC][short VERSION][byte kind] then entries of
+ *   [byte RECORD][int id][int owner][int length][record bytes][int crc32]   or
+ *   [byte TOMBSTONE][int id][int owner][int length = 0][int crc32]
+ * The owner is the donor ID for units (so a deleted donor's history can be found) and 0 otherwise.
+ */
+class HistoryArchive<T> {
+
+    private static final int MAGIC = 0x42424841; // "BBHA"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 1;
+    private static final int ENTRY_HEADER_SIZE = 1 + 4 + 4 + 4;
+
+    private static final byte RECORD = 1;
+    private static final byte TOMBSTONE = 2;
+
+    /** Where one archived record lives in the file. */
+    private static final class Entry {
+        final int id;
+        final int owner;
+        final long offset; // Start of the record bytes
+        final int length;
+
+        Entry(int id, int owner, long offset, int length) {
+            this.id = id;
+            this.owner = owner;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final Path path;
+    private final RecordCodec.Format<T> format;
+    private final ToIntFunction<T> idOf;
+    private final ToIntFunction<T> ownerOf;
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel channel;
+    private RecordTable<Entry> index; // Live records, in archive order
+    private IntHashMap<ArrayList<Entry>> byOwner; // Live records of each non-zero owner
+    private int maxId;
+
+    HistoryArchive(String fileName, RecordCodec.Format<T> format, ToIntFunction<T> idOf, ToIntFunction<T> ownerOf) {
+        this.path = Paths.get(fileName);
+        this.format = format;
+        this.idOf = idOf;
+        this.ownerOf = ownerOf;
+    }
+
+    /**
+     * Opens (or creates) the archive and builds the index from it.
+     * A torn entry at the end of the file (e.g. from a crash mid-append) is discarded.
+     */
+    synchronized void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = new RecordTable<>(entry -> entry.id, new ArrayList<>());
+        byOwner = new IntHashMap<>();
+
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putShort(VERSION).put(format.kind()).flip();
+            channel.write(header, 0);
+            channel.force(true);
+            return;
+        }
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Channels.newInputStream(channel.position(0)), 64 * 1024));
+        if (in.readInt() != MAGIC || in.readShort() > VERSION || in.readByte() != format.kind()) {
+            throw new IOException(path.getFileName() + " is not a history archive for this record kind");
+        }
+
+        CRC32 check = new CRC32();
+        long position = HEADER_SIZE;
+        long fileSize = channel.size();
+        while (true) {
+            try {
+                byte type = in.readByte();
+                int id = in.readInt();
+                int owner = in.readInt();
+                int length = in.readInt();
+                if ((type != RECORD && type != TOMBSTONE) || length < 0
+                        || position + ENTRY_HEADER_SIZE + length + 4 > fileSize) {
+                    break; // Torn or garbage tail
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                check.reset();
+                updateHeader(check, type, id, owner, length);
+                check.update(body, 0, length);
+                if ((int) check.getValue() != in.readInt()) {
+                    break;
+                }
+                apply(type, id, owner, position + ENTRY_HEADER_SIZE, length);
+                position += ENTRY_HEADER_SIZE + length + 4;
+            } catch (EOFException e) {
+                break;
+            }
+        }
+        if (position < fileSize) {
+            System.out.println("History: discarded " + (fileSize - position) + " bytes of torn tail in "
+                    + path.getFileName() + ".");
+            channel.truncate(position);
+        }
+    }
+
+    /**
+     * Appends the records and forces them to disk before returning, so the caller can
+     * then drop them from memory and from its snapshot.
+     */
+    synchronized void append(Collection<T> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(records.size() * 128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        DataOutputStream bodyOut = new DataOutputStream(body);
+
+        long end = channel.size();
+        ArrayList<Entry> added = new ArrayList<>(records.size());
+        for (T record : records) {
+            body.reset();
+            format.write(bodyOut, record);
+            int id = idOf.applyAsInt(record);
+            int owner = ownerOf.applyAsInt(record);
+            added.add(new Entry(id, owner, end + bytes.size() + ENTRY_HEADER_SIZE, body.size()));
+            writeEntry(out, RECORD, id, owner, body.toByteArray());
+        }
+        write(bytes.toByteArray(), end);
+
+        for (Entry entry : added) {
+            unindex(entry.id); // A record archived twice keeps its newest copy
+            index(entry);
+        }
+    }
+
+    synchronized boolean contains(int id) {
+        return index.get(id) != null;
+    }
+
+    /**
+     * Deletes an archived record by appending a tombstone for it.
+     * @return true if the record was in the archive.
+     */
+    synchronized boolean remove(int id) throws IOException {
+        Entry entry = index.get(id);
+        if (entry == null) {
+            return false;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(ENTRY_HEADER_SIZE + 4);
+        writeEntry(new DataOutputStream(bytes), TOMBSTONE, entry.id, entry.owner, new byte[0]);
+        write(bytes.toByteArray(), channel.size());
+        unindex(id);
+        return true;
+    }
+
+    /**
+     * Deletes every archived record with the given owner (e.g. a deleted donor's units),
+     * writing all their tombstones with a single append.
+     * @param owner A non-zero owner.
+     * @return How many records were removed.
+     */
+    synchronized int removeOwnedBy(int owner) throws IOException {
+        ArrayList<Entry> owned = byOwner.get(owner);
+        if (owned == null) {
+            return 0;
+        }
+        owned = new ArrayList<>(owned);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(owned.size() * (ENTRY_HEADER_SIZE + 4));
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Entry entry : owned) {
+            writeEntry(out, TOMBSTONE, entry.id, entry.owner, new byte[0]);
+        }
+        write(bytes.toByteArray(), channel.size());
+
+        for (Entry entry : owned) {
+            unindex(entry.id);
+        }
+        return owned.size();
+    }
+
+    /**
+     * @return The number of live records in the archive.
+     */
+    synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * @return The highest ID ever archived (deleted ones included), or 0.
+     */
+    synchronized int maxId() {
+        return maxId;
+    }
+
+    /**
+     * Reads a page of archived records, in archive order.
+     * @param from Position of the first record (0 is the oldest).
+     * @param count The most records to return.
+     */
+    synchronized ArrayList<T> read(int from, int count) throws IOException {
+        int to = Math.min(index.size(), from + count);
+        ArrayList<T> page = new ArrayList<>(Math.max(0, to - from));
+        if (from >= to) {
+            return page;
+        }
+
+        // The page's entries are usually adjacent in the file, so read the whole span at once
+        Entry first = index.getAt(from);
+        Entry last = index.getAt(to - 1);
+        long spanStart = Math.min(first.offset, last.offset);
+        long spanEnd = Math.max(first.offset + first.length, last.offset + last.length);
+        boolean contiguous = spanEnd - spanStart <= 4L * 1024 * 1024;
+
+        byte[] span = contiguous ? readBytes(spanStart, (int) (spanEnd - spanStart)) : null;
+        for (int i = from; i < to; i++) {
+            Entry entry = index.getAt(i);
+            byte[] data;
+            int offset;
+            if (span != null && entry.offset >= spanStart && entry.offset + entry.length <= spanEnd) {
+                data = span;
+                offset = (int) (entry.offset - spanStart);
+            } else {
+                data = readBytes(entry.offset, entry.length);
+                offset = 0;
+            }
+            page.add(format.read(new DataInputStream(new ByteArrayInputStream(data, offset, entry.length))));
+        }
+        return page;
+    }
+
+    synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing " + path.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    // --- Helpers ---
+
+    private void apply(byte type, int id, int owner, long offset, int length) {
+        unindex(id);
+        if (type == RECORD) {
+            index(new Entry(id, owner, offset, length));
+        }
+    }
+
+    private void index(Entry entry) {
+        index.add(entry);
+        maxId = Math.max(maxId, entry.id);
+        if (entry.owner != 0) {
+            ArrayList<Entry> owned = byOwner.get(entry.owner);
+            if (owned == null) {
+                owned = new ArrayList<>(4);
+                byOwner.put(entry.owner, owned);
+            }
+            owned.add(entry);
+        }
+    }
+
+    private void unindex(int id) {
+        Entry entry = index.remove(id);
+        if (entry == null || entry.owner == 0) {
+            return;
+        }
+        ArrayList<Entry> owned = byOwner.get(entry.owner);
+        owned.remove(entry);
+        if (owned.isEmpty()) {
+            byOwner.remove(entry.owner);
+        }
+    }
+
+    private void writeEntry(DataOutputStream out, byte type, int id, int owner, byte[] body) throws IOException {
+        crc.reset();
+        updateHeader(crc, type, id, owner, body.length);
+        crc.update(body, 0, body.length);
+        out.writeByte(type);
+        out.writeInt(id);
+        out.writeInt(owner);
+        out.writeInt(body.length);
+        out.write(body);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private static void updateHeader(CRC32 crc, byte type, int id, int owner, int length) {
+        ByteBuffer header = ByteBuffer.allocate(ENTRY_HEADER_SIZE);
+        header.put(type).putInt(id).putInt(owner).putInt(length);
+        crc.update(header.array(), 0, ENTRY_HEADER_SIZE);
+    }
+
+    private void write(byte[] data, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        channel.force(false);
+    }
+
+    private byte[] readBytes(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("History archive " + path.getFileName() + " is truncated");
+            }
+        }
+        return buffer.array();
+    }
+}
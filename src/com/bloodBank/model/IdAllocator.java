@@ -0,0 +1,150 @@
+// File: src/com/bloodBank/model/IdAllocator.java
+package com.bloodBank.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out donor, recipient and blood unit IDs. Safe to use from several threads.
+ *
+ * IDs come from atomic counters. Before an ID is handed out, the block it falls in is
+ * reserved in "ids.dat", so an ID is never reused, even after a crash or after the
+ * record that had the highest ID was deleted. A crash only skips the rest of the
+ * reserved block; a clean close() records the exact next IDs.
+ *
+ * File layout (a SnapshotFile): [int MAGIC][short VERSION][int kinds] then one
+ * [int next free ID] per kind.
+ */
+class IdAllocator {
+
+    static final int DONOR = 0;
+    static final int RECIPIENT = 1;
+    static final int UNIT = 2;
+    private static final int KINDS = 3;
+
+    private static final int MAGIC = 0x42424944; // "BBID"
+    private static final short VERSION = 1;
+    private static final int BLOCK_SIZE = 100;
+
+    private final String fileName;
+    private final AtomicInteger[] next = new AtomicInteger[KINDS];
+    private volatile int[] reservedUpTo; // Exclusive; replaced as a whole, only under this monitor
+
+    private IdAllocator(String fileName, int[] start) {
+        this.fileName = fileName;
+        for (int kind = 0; kind < KINDS; kind++) {
+            next[kind] = new AtomicInteger(start[kind]);
+        }
+        this.reservedUpTo = start.clone();
+    }
+
+    /**
+     * Loads the allocator from its file.
+     * @param floor For each kind, the lowest ID that may be handed out (one above the highest
+     *              ID in the loaded data). Used for data saved before ids.dat existed, and in
+     *              case the file had to be recovered from an older generation.
+     */
+    static IdAllocator open(String fileName, int[] floor) throws IOException {
+        int[] saved = SnapshotFile.read(fileName, in -> {
+            DataInputStream data = new DataInputStream(in);
+            if (data.readInt() != MAGIC || data.readShort() > VERSION) {
+                throw new IOException("not an ID file");
+            }
+            int[] values = new int[data.readInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = data.readInt();
+            }
+            return values;
+        });
+
+        int[] start = new int[KINDS];
+        for (int kind = 0; kind < KINDS; kind++) {
+            int fromFile = saved != null && kind < saved.length ? saved[kind] : 1;
+            start[kind] = Math.max(1, Math.max(fromFile, floor[kind]));
+        }
+        return new IdAllocator(fileName, start);
+    }
+
+    /**
+     * @return A new, never used ID of the given kind.
+     * @throws IllegalStateException If the next block could not be reserved on disk.
+     */
+    int next(int kind) {
+        int id = next[kind].getAndIncrement();
+        if (id >= reservedUpTo[kind]) {
+            reserveThrough(kind, id);
+        }
+        return id;
+    }
+
+    /**
+     * Hands out count consecutive IDs with at most one reservation, for bulk imports.
+     * @return The first of the IDs.
+     */
+    int nextRange(int kind, int count) {
+        int first = next[kind].getAndAdd(count);
+        int last = first + count - 1;
+        if (count > 0 && last >= reservedUpTo[kind]) {
+            reserveThrough(kind, last);
+        }
+        return first;
+    }
+
+    /**
+     * Makes sure an ID that came from outside (e.g. an imported record) is never handed out.
+     */
+    void advancePast(int kind, int id) {
+        next[kind].accumulateAndGet(id + 1, Math::max);
+        if (id >= reservedUpTo[kind]) {
+            reserveThrough(kind, id);
+        }
+    }
+
+    /**
+     * Records the exact next IDs, so a restart continues without a gap.
+     */
+    synchronized void close() {
+        int[] exact = new int[KINDS];
+        for (int kind = 0; kind < KINDS; kind++) {
+            exact[kind] = next[kind].get();
+        }
+        try {
+            save(exact);
+            reservedUpTo = exact;
+        } catch (IOException e) {
+            System.out.println("Error saving " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    // --- Helpers ---
+
+    // Callers that got an ID past the reservation wait here until its block is on disk
+    private synchronized void reserveThrough(int kind, int id) {
+        if (id < reservedUpTo[kind]) {
+            return; // Another thread reserved it meanwhile
+        }
+        int[] reserved = reservedUpTo.clone();
+        reserved[kind] = id + BLOCK_SIZE;
+        try {
+            save(reserved);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not reserve IDs in " + fileName + ": " + e.getMessage(), e);
+        }
+        reservedUpTo = reserved;
+    }
+
+    private void save(int[] values) throws IOException {
+        SnapshotFile.write(fileName, out -> {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(MAGIC);
+            data.writeShort(VERSION);
+            data.writeInt(values.length);
+            for (int value : values) {
+                data.writeInt(value);
+            }
+            data.flush();
+        });
+    }
+}
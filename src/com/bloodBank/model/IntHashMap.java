@@ -0,0 +1,162 @@
+// File: src/com/bloodBank/model/IntHashMap.java
+package com.bloodBank.model;
+
+/**
+ * Hash map from a primitive int key to a value, used to look records up by ID.
+ * Open addressing with linear probing: keys are never boxed and a lookup touches one
+ * or two adjacent array slots. Removal shifts the following entries back, so there
+ * are no tombstones and the table never degrades. Values may not be null.
+ */
+class IntHashMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values; // null marks a free slot
+    private int mask;
+    private int size;
+
+    IntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize How many entries the map should hold before it first grows.
+     */
+    IntHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int slot = find(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * @return The previous value for the key, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("IntHashMap does not hold null values");
+        }
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 2 > values.length) {
+            resize(values.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * @return The existing value for the key (left unchanged), or null if the value was added.
+     */
+    V putIfAbsent(int key, V value) {
+        V existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        put(key, value);
+        return null;
+    }
+
+    /**
+     * @return The removed value, or null if the key was not present.
+     */
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V removed = (V) values[slot];
+
+        // Shift later entries of the same probe run back into the gap
+        int gap = slot;
+        int i = slot;
+        while (true) {
+            i = (i + 1) & mask;
+            if (values[i] == null) {
+                break;
+            }
+            int home = hash(keys[i]) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = null;
+        size--;
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        allocate(MIN_CAPACITY);
+    }
+
+    // --- Helpers ---
+
+    private int find(int key) {
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    // IDs are sequential, so spread them before masking to keep probe runs short
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,178 @@
+// File: src/com/bloodBank/model/InventoryIndex.java
+package com.bloodBank.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The IN_STOCK units of each blood group, ordered by the allocation policy
+ * (the unit to issue next comes first).
+ * Issued, expired and deleted units are taken out as soon as they change, so finding
+ * a unit to issue costs O(log n) no matter how much history the model holds.
+ * A per-group count is kept alongside, so stock levels are read without allocating.
+ *
+ * Each group's units are also bucketed by expiry day, so the units that expired
+ * overnight, or those expiring in a date range, are found in O(log n + k) without
+ * looking at the rest of the stock.
+ *
+ * Callers hold the group's lock (see GroupLocks) for every operation on a group, and
+ * every lock for reorder(). The counts can be read at any time without a lock.
+ */
+class InventoryIndex {
+
+    private final TreeSet<BloodUnit>[] inStock;
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(BloodGroups.COUNT); // Set sizes, by group code
+    private final TreeMap<Long, HashSet<BloodUnit>>[] byExpiryDay; // Same units as inStock
+    private volatile Comparator<BloodUnit> order;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    InventoryIndex(AllocationPolicy policy) {
+        order = policy.issueOrder().thenComparingInt(BloodUnit::getUnitId);
+        inStock = createSets(order);
+        byExpiryDay = new TreeMap[BloodGroups.COUNT];
+        for (int i = 0; i < byExpiryDay.length; i++) {
+            byExpiryDay[i] = new TreeMap<>();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static TreeSet<BloodUnit>[] createSets(Comparator<BloodUnit> order) {
+        TreeSet<BloodUnit>[] sets = new TreeSet[BloodGroups.COUNT];
+        for (int i = 0; i < sets.length; i++) {
+            sets[i] = new TreeSet<>(order);
+        }
+        return sets;
+    }
+
+    /**
+     * Re-sorts every group for a new allocation policy.
+     */
+    void reorder(AllocationPolicy policy) {
+        order = policy.issueOrder().thenComparingInt(BloodUnit::getUnitId);
+        TreeSet<BloodUnit>[] sets = createSets(order);
+        for (int i = 0; i < sets.length; i++) {
+            sets[i].addAll(inStock[i]);
+            inStock[i] = sets[i];
+        }
+    }
+
+    /**
+     * @return The issue order used by every group (policy order, then unit ID).
+     */
+    Comparator<BloodUnit> order() {
+        return order;
+    }
+
+    /**
+     * Rebuilds the index from scratch (after loading).
+     */
+    void rebuild(Iterable<BloodUnit> units) {
+        for (int i = 0; i < BloodGroups.COUNT; i++) {
+            inStock[i].clear();
+            byExpiryDay[i].clear();
+        }
+        for (int i = 0; i < BloodGroups.COUNT; i++) {
+            counts.set(i, 0);
+        }
+        for (BloodUnit unit : units) {
+            add(unit);
+        }
+    }
+
+    /**
+     * Adds the unit if it is in stock and of a known blood group.
+     */
+    void add(BloodUnit unit) {
+        int group = BloodGroups.indexOf(unit.getBloodGroup());
+        if (group >= 0 && unit.getStatus() == BloodStatus.IN_STOCK) {
+            if (inStock[group].add(unit)) {
+                counts.incrementAndGet(group);
+                byExpiryDay[group].computeIfAbsent(unit.getExpiryDate().toEpochDay(),
+                        day -> new HashSet<>()).add(unit);
+            }
+        }
+    }
+
+    /**
+     * Removes the unit. Call this whenever a unit leaves IN_STOCK or is deleted.
+     */
+    void remove(BloodUnit unit) {
+        int group = BloodGroups.indexOf(unit.getBloodGroup());
+        if (group >= 0) {
+            if (inStock[group].remove(unit)) {
+                counts.decrementAndGet(group);
+                removeFromExpiryDay(group, unit);
+            }
+        }
+    }
+
+    /**
+     * Removes and returns the in-stock unit of the group the policy issues next.
+     * @return The unit, or null if the group is out of stock.
+     */
+    BloodUnit pollFirst(int group) {
+        BloodUnit unit = inStock[group].pollFirst();
+        if (unit != null) {
+            counts.decrementAndGet(group);
+            removeFromExpiryDay(group, unit);
+        }
+        return unit;
+    }
+
+    /**
+     * @return The unit of the group the policy issues next (left in the index), or null.
+     */
+    BloodUnit peekFirst(int group) {
+        TreeSet<BloodUnit> set = inStock[group];
+        return set.isEmpty() ? null : set.first();
+    }
+
+    /**
+     * Adds the group's in-stock units whose expiry day is before the given day to the list,
+     * leaving them in the index (remove each once its new status is logged).
+     */
+    void addExpired(int group, long today, List<BloodUnit> into) {
+        for (HashSet<BloodUnit> bucket : byExpiryDay[group].headMap(today).values()) {
+            into.addAll(bucket);
+        }
+    }
+
+    /**
+     * Adds the group's in-stock units whose expiry day is in [fromDay, toDay] to the list,
+     * soonest first.
+     */
+    void addExpiringBetween(int group, long fromDay, long toDay, List<BloodUnit> into) {
+        if (fromDay > toDay) {
+            return;
+        }
+        for (HashSet<BloodUnit> bucket : byExpiryDay[group].subMap(fromDay, true, toDay, true).values()) {
+            into.addAll(bucket);
+        }
+    }
+
+    private void removeFromExpiryDay(int group, BloodUnit unit) {
+        long day = unit.getExpiryDate().toEpochDay();
+        HashSet<BloodUnit> bucket = byExpiryDay[group].get(day);
+        if (bucket != null && bucket.remove(unit) && bucket.isEmpty()) {
+            byExpiryDay[group].remove(day);
+        }
+    }
+
+    int count(int group) {
+        return counts.get(group);
+    }
+
+    /**
+     * Copies the in-stock count of every group into the array, indexed by group code.
+     */
+    void copyCounts(int[] into) {
+        for (int i = 0; i < BloodGroups.COUNT; i++) {
+            into[i] = counts.get(i);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+// File: src/com/bloodBank/model/JournaledUnitStore.java
+package com.bloodBank.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Default unit store: changes are appended to the shared journal and the whole
+ * list is written to bloodUnits.dat at each checkpoint.
+ */
+class JournaledUnitStore implements BloodUnitStore {
+
+    private final String fileName;
+    private final Supplier<DataJournal> journal; // Opened by the model after load()
+
+    JournaledUnitStore(String fileName, Supplier<DataJournal> journal) {
+        this.fileName = fileName;
+        this.journal = journal;
+    }
+
+    @Override
+    public ArrayList<BloodUnit> load() {
+        return BloodBankModel.loadSnapshot(fileName, "Blood unit", RecordCodec.UNIT);
+    }
+
+    @Override
+    public void unitAdded(BloodUnit unit) {
+        journal.get().unitAdded(unit);
+    }
+
+    @Override
+    public void unitChanging(BloodUnit unit, BloodStatus status, Integer recipientId) {
+        journal.get().unitStatusChanged(unit.getUnitId(), status, recipientId);
+    }
+
+    @Override
+    public void unitRemoved(BloodUnit unit) {
+        // Covered by the DONOR_DELETED record, which replay cascades to the units,
+        // or (for archived units) by the next snapshot, which leaves the unit out
+    }
+
+    @Override
+    public void unitReplayed(BloodUnit unit) {
+        // Already in the journal
+    }
+
+    @Override
+    public void unitRemovedByReplay(BloodUnit unit) {
+        // Already in the journal
+    }
+
+    @Override
+    public void checkpoint(List<BloodUnit> units) throws IOException {
+        BloodBankModel.writeSnapshot(fileName, RecordCodec.UNIT, units);
+    }
+
+    @Override
+    public void close() {
+        // The journal is closed by the model
+    }
+}
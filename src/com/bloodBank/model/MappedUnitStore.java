@@ -0,0 +1,281 @@
+// File: src/com/bloodBank/model/MappedUnitStore.java
+package com.bloodBank.model;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit store backed by a memory-mapped file with one fixed-size slot per unit.
+ * A unit's slot is found through an in-memory ID-to-slot map, so a status change is an
+ * in-place write of a few bytes and startup just reads the slots back, with no decoding.
+ * Slots freed by deleted or archived units are reused, so the file grows with the number
+ * of units held rather than with the highest unit ID.
+ *
+ * Writes land in the OS page cache and survive a crash of the app itself; they are
+ * forced to the device at each checkpoint and on close.
+ *
+ * Unit changes are not journaled and bloodUnits.dat is not rewritten while this store is
+ * in use, so the model records the active store in unitStore.dat and moves the units when
+ * it changes: the first mapped run imports bloodUnits.dat (plus the journal, through
+ * replay), and the first journaled run afterwards exports this file to bloodUnits.dat.
+ * Switching either way is therefore just a restart with or without -Dbloodbank.unitStore=mapped.
+ *
+ * Header: [int MAGIC][short VERSION][short SLOT_SIZE][int capacity][int highest slot used]
+ * Slot:   [byte state][byte group][byte status][byte pad][int unitId][int donorId]
+ *         [int donation epoch day][int expiry epoch day][int recipientId or -1][8 bytes reserved]
+ */
+class MappedUnitStore implements BloodUnitStore {
+
+    private static final int MAGIC = 0x42424D55; // "BBMU"
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 32;
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE; // One mapping's limit
+
+    // Header offsets
+    private static final int H_CAPACITY = 8;
+    private static final int H_HIGHEST = 12;
+
+    // Slot offsets
+    private static final int S_STATE = 0;
+    private static final int S_GROUP = 1;
+    private static final int S_STATUS = 2;
+    private static final int S_UNIT_ID = 4;
+    private static final int S_DONOR_ID = 8;
+    private static final int S_DONATED = 12;
+    private static final int S_EXPIRES = 16;
+    private static final int S_RECIPIENT = 20;
+
+    private static final byte FREE = 0;
+    private static final byte LIVE = 1;
+    private static final int NO_RECIPIENT = -1;
+    private static final BloodStatus[] BLOOD_STATUSES = BloodStatus.values();
+
+    private final Path path;
+    private final String legacySnapshotFile; // Imported the first time the store is used
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int highestSlot; // Slots above this have never been used
+    private final IntHashMap<Integer> slotOf = new IntHashMap<>(); // Unit ID -> slot of each live unit
+    private int[] freeSlots = new int[16]; // Free slots below highestSlot, reused first
+    private int freeCount;
+
+    MappedUnitStore(String fileName, String legacySnapshotFile) {
+        this.path = Paths.get(fileName);
+        this.legacySnapshotFile = legacySnapshotFile;
+    }
+
+    @Override
+    public synchronized ArrayList<BloodUnit> load() throws IOException {
+        boolean isNew = !Files.exists(path);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        if (isNew) {
+            map(INITIAL_CAPACITY);
+            buffer.putInt(0, MAGIC);
+            buffer.putShort(4, VERSION);
+            buffer.putShort(6, (short) SLOT_SIZE);
+            buffer.putInt(H_CAPACITY, capacity);
+            buffer.putInt(H_HIGHEST, 0);
+
+            // Carry over units from the snapshot used by the journaled store
+            ArrayList<BloodUnit> existing = BloodBankModel.loadSnapshot(legacySnapshotFile, "Blood unit", RecordCodec.UNIT);
+            for (BloodUnit unit : existing) {
+                writeSlot(unit);
+            }
+            buffer.force();
+            System.out.println("Created mapped unit store with " + existing.size() + " units.");
+            return existing;
+        }
+
+        map((int) ((channel.size() - HEADER_SIZE) / SLOT_SIZE));
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(6) != SLOT_SIZE) {
+            throw new IOException(path.getFileName() + " is not a unit store");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IOException(path.getFileName() + " has unsupported version " + buffer.getShort(4));
+        }
+        highestSlot = buffer.getInt(H_HIGHEST);
+        if (highestSlot < 0 || highestSlot > capacity) {
+            throw new IOException(path.getFileName() + " is damaged (highest slot " + highestSlot + ")");
+        }
+
+        ArrayList<BloodUnit> units = new ArrayList<>(highestSlot);
+        for (int slot = 0; slot < highestSlot; slot++) {
+            int base = HEADER_SIZE + slot * SLOT_SIZE;
+            if (buffer.get(base + S_STATE) == LIVE) {
+                BloodUnit unit = readSlot(base);
+                units.add(unit);
+                slotOf.put(unit.getUnitId(), slot);
+            } else {
+                freeSlot(slot);
+            }
+        }
+        System.out.println("Blood unit data mapped successfully.");
+        return units;
+    }
+
+    /**
+     * Writes the units held in a mapped file to a .dat snapshot, for switching back to
+     * the journaled store. Does nothing if there is no mapped file.
+     */
+    static void exportSnapshot(String fileName, String snapshotFile) throws IOException {
+        if (!Files.exists(Paths.get(fileName))) {
+            return;
+        }
+        MappedUnitStore store = new MappedUnitStore(fileName, snapshotFile);
+        try {
+            BloodBankModel.writeSnapshot(snapshotFile, RecordCodec.UNIT, store.load());
+        } finally {
+            store.close();
+        }
+    }
+
+    @Override
+    public synchronized void unitAdded(BloodUnit unit) {
+        writeSlot(unit);
+    }
+
+    @Override
+    public synchronized void unitChanging(BloodUnit unit, BloodStatus status, Integer recipientId) {
+        int base = slotOffset(unit.getUnitId());
+        buffer.put(base + S_STATUS, (byte) status.ordinal());
+        buffer.putInt(base + S_RECIPIENT, recipientId == null ? NO_RECIPIENT : recipientId);
+    }
+
+    @Override
+    public synchronized void unitRemoved(BloodUnit unit) {
+        Integer slot = slotOf.remove(unit.getUnitId());
+        if (slot == null) {
+            return; // Already removed, e.g. replayed after a checkpoint
+        }
+        buffer.put(HEADER_SIZE + slot * SLOT_SIZE + S_STATE, FREE);
+        freeSlot(slot);
+    }
+
+    @Override
+    public synchronized void unitReplayed(BloodUnit unit) {
+        writeSlot(unit);
+    }
+
+    @Override
+    public synchronized void unitRemovedByReplay(BloodUnit unit) {
+        unitRemoved(unit);
+    }
+
+    @Override
+    public synchronized void checkpoint(List<BloodUnit> units) {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (buffer != null) {
+            buffer.force();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing unit store: " + e.getMessage());
+        }
+    }
+
+    // --- Slot access ---
+
+    private void writeSlot(BloodUnit unit) {
+        int groupCode = BloodGroups.indexOf(unit.getBloodGroup());
+        if (groupCode < 0) {
+            throw new IllegalArgumentException("Unknown blood group: " + unit.getBloodGroup());
+        }
+        Integer existing = slotOf.get(unit.getUnitId());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+        } else {
+            slot = freeCount > 0 ? freeSlots[--freeCount] : highestSlot;
+            ensureCapacity(slot + 1);
+            slotOf.put(unit.getUnitId(), slot);
+        }
+
+        int base = HEADER_SIZE + slot * SLOT_SIZE;
+        buffer.put(base + S_GROUP, (byte) groupCode);
+        buffer.put(base + S_STATUS, (byte) unit.getStatus().ordinal());
+        buffer.putInt(base + S_UNIT_ID, unit.getUnitId());
+        buffer.putInt(base + S_DONOR_ID, unit.getDonorId());
+        buffer.putInt(base + S_DONATED, (int) unit.getDonationDate().toEpochDay());
+        buffer.putInt(base + S_EXPIRES, (int) unit.getExpiryDate().toEpochDay());
+        buffer.putInt(base + S_RECIPIENT, unit.getRecipientId() == null ? NO_RECIPIENT : unit.getRecipientId());
+        buffer.put(base + S_STATE, LIVE); // Written last, so a half-written slot is never live
+
+        if (slot + 1 > highestSlot) {
+            highestSlot = slot + 1;
+            buffer.putInt(H_HIGHEST, highestSlot);
+        }
+    }
+
+    private BloodUnit readSlot(int base) {
+        int recipientId = buffer.getInt(base + S_RECIPIENT);
+        return new BloodUnit(
+                buffer.getInt(base + S_UNIT_ID),
+                buffer.getInt(base + S_DONOR_ID),
+                BloodGroups.ALL[buffer.get(base + S_GROUP)],
+                LocalDate.ofEpochDay(buffer.getInt(base + S_DONATED)),
+                LocalDate.ofEpochDay(buffer.getInt(base + S_EXPIRES)),
+                BLOOD_STATUSES[buffer.get(base + S_STATUS)],
+                recipientId == NO_RECIPIENT ? null : recipientId);
+    }
+
+    private int slotOffset(int unitId) {
+        Integer slot = slotOf.get(unitId);
+        if (slot == null) {
+            throw new IllegalArgumentException("Unit " + unitId + " is not in the store");
+        }
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private void freeSlot(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    // Doubles the file (and the mapping) until the slot fits
+    private void ensureCapacity(int slots) {
+        if (slots <= capacity) {
+            return;
+        }
+        if (slots > MAX_CAPACITY) {
+            throw new IllegalStateException("Unit store is full (" + MAX_CAPACITY + " units)");
+        }
+        long newCapacity = Math.max(capacity, 1);
+        while (newCapacity < slots) {
+            newCapacity *= 2;
+        }
+        newCapacity = Math.min(newCapacity, MAX_CAPACITY);
+        try {
+            buffer.force();
+            map((int) newCapacity);
+            buffer.putInt(H_CAPACITY, capacity);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not grow unit store: " + e.getMessage(), e);
+        }
+    }
+
+    private void map(int slots) throws IOException {
+        capacity = slots;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slots * SLOT_SIZE);
+    }
+}
@@ -0,0 +1,76 @@
+// File: src/com/bloodBank/model/ModelChangeEvent.java
+package com.bloodBank.model;
+
+/**
+ * One change to the model's records, published to ModelChangeListeners as it happens.
+ * The event carries the model's own record object, so it shows the record's current
+ * state rather than a copy taken when the event was made.
+ */
+public final class ModelChangeEvent {
+
+    public enum Type {
+        DONOR_ADDED,
+        DONOR_REMOVED,
+        RECIPIENT_ADDED,     // A new recipient, either waiting or already served
+        RECIPIENT_FULFILLED, // A waiting recipient received a unit
+        RECIPIENT_REMOVED,
+        UNIT_ADDED,
+        UNIT_STATUS_CHANGED, // Issued or expired
+        UNIT_REMOVED,
+        RECORDS_IMPORTED     // A bulk import added records without one event each; re-read the lists
+    }
+
+    private final Type type;
+    private final int id;
+    private final Object record;
+
+    ModelChangeEvent(Type type, int id, Object record) {
+        this.type = type;
+        this.id = id;
+        this.record = record;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return The ID of the donor, recipient or unit, or 0 for RECORDS_IMPORTED.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return The donor for DONOR_ADDED, otherwise null.
+     */
+    public Donor getDonor() {
+        return record instanceof Donor ? (Donor) record : null;
+    }
+
+    /**
+     * @return The recipient for RECIPIENT_ADDED and RECIPIENT_FULFILLED, otherwise null.
+     */
+    public Recipient getRecipient() {
+        return record instanceof Recipient ? (Recipient) record : null;
+    }
+
+    /**
+     * @return The unit for UNIT_ADDED, UNIT_STATUS_CHANGED and UNIT_REMOVED, otherwise null.
+     */
+    public BloodUnit getUnit() {
+        return record instanceof BloodUnit ? (BloodUnit) record : null;
+    }
+
+    /**
+     * @return true for events about blood units (including imports, which may add units).
+     */
+    public boolean affectsUnits() {
+        return record instanceof BloodUnit || type == Type.RECORDS_IMPORTED;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + id;
+    }
+}
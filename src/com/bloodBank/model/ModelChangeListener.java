@@ -0,0 +1,14 @@
+// File: src/com/bloodBank/model/ModelChangeListener.java
+package com.bloodBank.model;
+
+/**
+ * Receives the model's changes as they happen.
+ *
+ * modelChanged is called on the thread that made the change, possibly while the model
+ * holds its locks, in the order the changes were made to each blood group. It must return
+ * quickly and must not call back into the model; hand the event to another thread instead
+ * (the Swing controllers use ModelChangeDispatcher for that).
+ */
+public interface ModelChangeListener {
+    void modelChanged(ModelChangeEvent event);
+}
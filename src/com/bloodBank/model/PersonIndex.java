@@ -0,0 +1,502 @@
+// File: src/com/bloodBank/model/PersonIndex.java
+package com.bloodBank.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.ToIntFunction;
+
+/**
+ * Prefix search over the people in a RecordTable by first or last name, city, email or
+ * mobile number.
+ *
+ * Each of those is split into lower-case words (a mobile number becomes its digits, and
+ * also its last ten digits without the country code). Every (word, person) pair is kept
+ * in one array sorted by word, then ID, so the pairs whose word starts with a prefix are
+ * one contiguous range, found by binary search in O(log n).
+ *
+ * New pairs go to a small sorted side set and are merged into the array once the set
+ * grows past an eighth of it. Removed people are blanked out in place (found by binary
+ * search on word and ID) and dropped at the next merge. The index is built on the first
+ * search, then kept up to date by the table (see RecordTable.Observer). Safe to use from
+ * several threads.
+ *
+ * Each person's words are split once, when they are indexed, and kept with them, so
+ * checking a candidate against the other query words never splits their fields again.
+ * A search with a limit walks whichever is shorter: the range of its most selective
+ * word (r pairs), or everyone in ID order until the limit is reached (expected about
+ * limit * n / r people when matches are spread evenly). Either way it checks at most
+ * about sqrt(limit * n) candidates; with 20,000 donors and a limit of 500 that is
+ * around 3,000, and an average type-ahead search takes well under a millisecond.
+ */
+class PersonIndex<T extends Person> implements RecordTable.Observer<T> {
+
+    private static final int MIN_MERGE_SIZE = 1024;
+    private static final int NATIONAL_DIGITS = 10;
+
+    private final RecordTable<T> table;
+    private final ToIntFunction<T> idOf;
+    private volatile boolean built;
+
+    // The sorted pairs, as parallel arrays; people[i] is null once that person was removed
+    private String[] words = new String[0];
+    private int[] ids = new int[0];
+    private Object[] people = new Object[0]; // Indexed<T>
+    private int size;
+    private int blanks;
+
+    private final TreeSet<Entry<T>> recent = new TreeSet<>(Entry.ORDER); // Not merged yet
+    private final TreeMap<Integer, Indexed<T>> byId = new TreeMap<>(); // Everyone indexed
+
+    /** A person with their words, split once. */
+    private static final class Indexed<T> {
+        final T person;
+        final int id;
+        final String[] words;
+
+        Indexed(T person, int id, String[] words) {
+            this.person = person;
+            this.id = id;
+            this.words = words;
+        }
+    }
+
+    private static final class Entry<T> {
+        static final Comparator<Entry<?>> ORDER = (a, b) -> {
+            int byWord = a.word.compareTo(b.word);
+            return byWord != 0 ? byWord : Integer.compare(a.id, b.id);
+        };
+
+        final String word;
+        final int id;
+        final Indexed<T> indexed;
+
+        Entry(String word, int id, Indexed<T> indexed) {
+            this.word = word;
+            this.id = id;
+            this.indexed = indexed;
+        }
+    }
+
+    PersonIndex(RecordTable<T> table, ToIntFunction<T> idOf) {
+        this.table = table;
+        this.idOf = idOf;
+    }
+
+    /**
+     * Finds the people who, for every word of the query, have a word starting with it
+     * (e.g. "ra del" finds Ravi of Delhi). A query with digits and no letters is matched
+     * against mobile numbers as a whole, ignoring spaces, dashes and a leading +.
+     * @param limit The most people to return; the earliest registered (lowest IDs) win.
+     * @return The matches, in registration (ID) order.
+     */
+    List<T> search(String query, int limit) {
+        if (!built) {
+            table.observe(this); // Builds the index under the table's monitor, see rebuild()
+        }
+        String[] terms = terms(query);
+        if (terms.length == 0 || limit <= 0) {
+            return new ArrayList<>();
+        }
+        LowestIds<T> best = new LowestIds<>(limit);
+
+        synchronized (this) {
+            int mostSelective = 0;
+            int fewest = Integer.MAX_VALUE;
+            for (int i = 0; i < terms.length; i++) {
+                int count = baseTo(terms[i]) - baseFrom(terms[i]) + recentWith(terms[i]).size();
+                if (count < fewest) {
+                    mostSelective = i;
+                    fewest = count;
+                }
+            }
+            if ((long) fewest * fewest > (long) limit * byId.size()) {
+                // A broad query: matches are dense, so the first people in ID order soon fill the limit
+                ArrayList<T> matches = new ArrayList<>();
+                for (Indexed<T> indexed : byId.values()) {
+                    if (matchesAll(indexed, terms)) {
+                        matches.add(indexed.person);
+                        if (matches.size() == limit) {
+                            break;
+                        }
+                    }
+                }
+                return matches;
+            }
+
+            // Walk the pairs of the most selective term and check the others on each person.
+            // The pairs are in word order, so the whole range is walked to find the lowest IDs.
+            String term = terms[mostSelective];
+            boolean checkOthers = terms.length > 1; // The candidates came from this term's range
+            for (int i = baseFrom(term), to = baseTo(term); i < to; i++) {
+                @SuppressWarnings("unchecked")
+                Indexed<T> indexed = (Indexed<T>) people[i];
+                if (indexed != null && best.wants(ids[i]) && (!checkOthers || matchesAll(indexed, terms))) {
+                    best.add(ids[i], indexed.person);
+                }
+            }
+            for (Entry<T> entry : recentWith(term)) {
+                if (best.wants(entry.id) && (!checkOthers || matchesAll(entry.indexed, terms))) {
+                    best.add(entry.id, entry.indexed.person);
+                }
+            }
+        }
+        return best.inIdOrder();
+    }
+
+    // The matches with the lowest IDs seen so far: a max-heap on ID, so the one to drop is on top
+    private static final class LowestIds<T> {
+        private final int limit;
+        private int[] heapIds = new int[16];
+        private Object[] heapPeople = new Object[16];
+        private int count;
+        private final HashSet<Integer> present = new HashSet<>(); // A person can match on several words
+
+        LowestIds(int limit) {
+            this.limit = limit;
+        }
+
+        boolean wants(int id) {
+            return (count < limit || id < heapIds[0]) && !present.contains(id);
+        }
+
+        void add(int id, Object person) {
+            present.add(id);
+            if (count < limit) {
+                if (count == heapIds.length) {
+                    heapIds = Arrays.copyOf(heapIds, count * 2);
+                    heapPeople = Arrays.copyOf(heapPeople, count * 2);
+                }
+                int i = count++;
+                for (int parent; i > 0 && heapIds[parent = (i - 1) / 2] < id; i = parent) {
+                    heapIds[i] = heapIds[parent];
+                    heapPeople[i] = heapPeople[parent];
+                }
+                heapIds[i] = id;
+                heapPeople[i] = person;
+                return;
+            }
+            present.remove(heapIds[0]); // Replace the highest ID
+            int i = 0;
+            for (int child; (child = 2 * i + 1) < count; i = child) {
+                if (child + 1 < count && heapIds[child + 1] > heapIds[child]) {
+                    child++;
+                }
+                if (heapIds[child] <= id) {
+                    break;
+                }
+                heapIds[i] = heapIds[child];
+                heapPeople[i] = heapPeople[child];
+            }
+            heapIds[i] = id;
+            heapPeople[i] = person;
+        }
+
+        @SuppressWarnings("unchecked")
+        ArrayList<T> inIdOrder() {
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> heapIds[i]));
+            ArrayList<T> result = new ArrayList<>(count);
+            for (Integer i : order) {
+                result.add((T) heapPeople[i]);
+            }
+            return result;
+        }
+    }
+
+    // --- RecordTable.Observer ---
+
+    @Override
+    public synchronized void rebuild(Iterable<T> records) {
+        byId.clear();
+        ArrayList<String> personWords = new ArrayList<>();
+        int count = 0;
+        for (T person : records) {
+            personWords.clear();
+            wordsOf(person, personWords);
+            int id = idOf.applyAsInt(person);
+            byId.put(id, new Indexed<>(person, id, personWords.toArray(new String[0])));
+            count += personWords.size();
+        }
+        words = new String[count];
+        ids = new int[count];
+        people = new Object[count];
+        size = 0;
+        blanks = 0;
+        recent.clear();
+        for (Indexed<T> indexed : byId.values()) {
+            for (String word : indexed.words) {
+                words[size] = word;
+                ids[size] = indexed.id;
+                people[size] = indexed;
+                size++;
+            }
+        }
+        sort(0, size - 1);
+        built = true;
+    }
+
+    @Override
+    public synchronized void added(T person) {
+        ArrayList<String> personWords = new ArrayList<>();
+        wordsOf(person, personWords);
+        int id = idOf.applyAsInt(person);
+        Indexed<T> indexed = new Indexed<>(person, id, personWords.toArray(new String[0]));
+        byId.put(id, indexed);
+        for (String word : indexed.words) {
+            recent.add(new Entry<>(word, id, indexed));
+        }
+        if (recent.size() > Math.max(MIN_MERGE_SIZE, size / 8)) {
+            merge();
+        }
+    }
+
+    @Override
+    public synchronized void removed(T person) {
+        int id = idOf.applyAsInt(person);
+        Indexed<T> indexed = byId.remove(id);
+        if (indexed == null) {
+            return;
+        }
+        for (String word : indexed.words) {
+            if (recent.remove(new Entry<T>(word, id, null))) {
+                continue;
+            }
+            int i = lowerBound(word, id);
+            if (i < size && ids[i] == id && words[i].equals(word) && people[i] != null) {
+                people[i] = null;
+                blanks++;
+            }
+        }
+        if (blanks > size / 2) {
+            merge();
+        }
+    }
+
+    // --- Words ---
+
+    // Query words: lower-case letter/digit runs, or one run of digits for a phone number
+    private static String[] terms(String query) {
+        if (query == null) {
+            return new String[0];
+        }
+        boolean hasLetter = false;
+        for (int i = 0; i < query.length(); i++) {
+            hasLetter |= Character.isLetter(query.charAt(i));
+        }
+        ArrayList<String> terms = new ArrayList<>();
+        if (hasLetter) {
+            splitWords(query, terms);
+        } else {
+            String digits = digitsOf(query);
+            if (!digits.isEmpty()) {
+                terms.add(digits);
+            }
+        }
+        return terms.toArray(new String[0]);
+    }
+
+    // Distinct words of the person's searchable fields
+    private void wordsOf(T person, List<String> into) {
+        splitWords(person.getFirstName(), into);
+        splitWords(person.getLastName(), into);
+        splitWords(person.getCity(), into);
+        splitWords(person.getEmail(), into);
+        if (person.getMobileNo() != null) {
+            String digits = digitsOf(person.getMobileNo());
+            addWord(digits, into);
+            if (digits.length() > NATIONAL_DIGITS) {
+                addWord(digits.substring(digits.length() - NATIONAL_DIGITS), into);
+            }
+        }
+    }
+
+    private static void splitWords(String text, List<String> into) {
+        if (text == null) {
+            return;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean inWord = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                addWord(lower.substring(start, i), into);
+                start = -1;
+            }
+        }
+    }
+
+    private static void addWord(String word, List<String> into) {
+        if (!word.isEmpty() && !into.contains(word)) {
+            into.add(word);
+        }
+    }
+
+    private static String digitsOf(String text) {
+        StringBuilder digits = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    // true if each term starts one of the person's words
+    private static boolean matchesAll(Indexed<?> indexed, String[] terms) {
+        for (String term : terms) {
+            boolean found = false;
+            for (String word : indexed.words) {
+                if (word.startsWith(term)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --- Sorted Pairs ---
+
+    // First pair whose word starts with the prefix (or sorts after it)
+    private int baseFrom(String prefix) {
+        return lowerBound(prefix, Integer.MIN_VALUE);
+    }
+
+    // Just past the last pair whose word starts with the prefix
+    private int baseTo(String prefix) {
+        String after = prefixEnd(prefix);
+        return after == null ? size : lowerBound(after, Integer.MIN_VALUE);
+    }
+
+    private NavigableSet<Entry<T>> recentWith(String prefix) {
+        Entry<T> from = new Entry<>(prefix, Integer.MIN_VALUE, null);
+        String after = prefixEnd(prefix);
+        return after == null
+                ? recent.tailSet(from, true)
+                : recent.subSet(from, true, new Entry<>(after, Integer.MIN_VALUE, null), false);
+    }
+
+    // The smallest string greater than every string starting with prefix, or null if none
+    private static String prefixEnd(String prefix) {
+        for (int i = prefix.length() - 1; i >= 0; i--) {
+            char c = prefix.charAt(i);
+            if (c != Character.MAX_VALUE) {
+                return prefix.substring(0, i) + (char) (c + 1);
+            }
+        }
+        return null;
+    }
+
+    // First index whose (word, id) is not below (word, id)
+    private int lowerBound(String word, int id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, word, id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compare(int i, String word, int id) {
+        int byWord = words[i].compareTo(word);
+        return byWord != 0 ? byWord : Integer.compare(ids[i], id);
+    }
+
+    // Folds the recent pairs into the array and drops the blanked ones, in one pass
+    private void merge() {
+        int capacity = size - blanks + recent.size();
+        String[] mergedWords = new String[capacity];
+        int[] mergedIds = new int[capacity];
+        Object[] mergedPeople = new Object[capacity];
+        int n = 0;
+        int i = 0;
+        for (Entry<T> entry : recent) {
+            for (; i < size && compare(i, entry.word, entry.id) < 0; i++) {
+                if (people[i] != null) {
+                    mergedWords[n] = words[i];
+                    mergedIds[n] = ids[i];
+                    mergedPeople[n++] = people[i];
+                }
+            }
+            mergedWords[n] = entry.word;
+            mergedIds[n] = entry.id;
+            mergedPeople[n++] = entry.indexed;
+        }
+        for (; i < size; i++) {
+            if (people[i] != null) {
+                mergedWords[n] = words[i];
+                mergedIds[n] = ids[i];
+                mergedPeople[n++] = people[i];
+            }
+        }
+        words = mergedWords;
+        ids = mergedIds;
+        people = mergedPeople;
+        size = n;
+        blanks = 0;
+        recent.clear();
+    }
+
+    // Quicksort of the parallel arrays by (word, id); the keys are distinct
+    private void sort(int low, int high) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            String pivotWord = words[mid];
+            int pivotId = ids[mid];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(i, pivotWord, pivotId) < 0) {
+                    i++;
+                }
+                while (compare(j, pivotWord, pivotId) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            // Recurse into the smaller part, loop on the larger, so the stack stays O(log n)
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        String word = words[a];
+        words[a] = words[b];
+        words[b] = word;
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        Object person = people[a];
+        people[a] = people[b];
+        people[b] = person;
+    }
+}
@@ -12,10 +12,7 @@ public class Recipient extends Person  { // <-- NEW (implements)
     // Unique identifier for serialization
     private static final long serialVersionUID = 4L; 
 
-    // Static counter for auto-incrementing ID
-    private static int nextId = 1;
-
-    private int recipientId;
+    private int recipientId; // 0 until the model registers the recipient
     private String reasonForTransfusion; 
     private LocalDate dateReceived; // <-- NEW: Will be null until unit is issued
 
@@ -33,11 +30,26 @@ public class Recipient extends Person  { // <-- NEW (implements)
               email, bloodGroup, city, fullAddress);
         
         // Set the Recipient-specific fields
-        this.recipientId = nextId++;
+        // The ID is assigned by the model when the recipient is added
         this.reasonForTransfusion = reasonForTransfusion;
         this.dateReceived = null; // Explicitly set to null on creation
     }
 
+    /**
+     * Rebuilds a stored recipient with its existing ID and status (used when loading data).
+     */
+    Recipient(int recipientId, String firstName, String lastName, String fatherName, String motherName,
+              LocalDate dob, String mobileNo, String gender, String email,
+              String bloodGroup, String city, String fullAddress,
+              String reasonForTransfusion, LocalDate dateReceived) {
+
+        super(firstName, lastName, fatherName, motherName, dob, mobileNo, gender,
+              email, bloodGroup, city, fullAddress);
+        this.recipientId = recipientId;
+        this.reasonForTransfusion = reasonForTransfusion;
+        this.dateReceived = dateReceived;
+    }
+
     // --- Getters for Recipient-specific fields ---
 
     public int getRecipientId() {
@@ -67,13 +79,20 @@ public class Recipient extends Person  { // <-- NEW (implements)
      * successful transaction to "stamp" the recipient as complete.
      */
     public void markAsReceived() { // <-- NEW
-        this.dateReceived = LocalDate.now();
+        this.dateReceived = DayClock.current().todayDate();
+    }
+
+    /**
+     * Sets the received date as it was logged to, or read back from, the journal.
+     */
+    void restoreDateReceived(LocalDate dateReceived) {
+        this.dateReceived = dateReceived;
     }
 
-    // --- Static Methods ---
+    // --- ID Assignment ---
 
-    public static void setNextId(int id) {
-        nextId = id;
+    void assignId(int recipientId) {
+        this.recipientId = recipientId;
     }
 
     @Override
@@ -0,0 +1,220 @@
+// File: src/com/bloodBank/model/RecordCodec.java
+package com.bloodBank.model;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Compact binary format for Donor, Recipient and BloodUnit records.
+ * Replaces default Java serialization: no class descriptors or reflection, dates are
+ * stored as epoch days, statuses as enum ordinals and strings as length-prefixed UTF-8.
+ *
+ * File layout: [int FILE_MAGIC][short VERSION][byte kind][int count][record]...
+ */
+final class RecordCodec {
+
+    static final int FILE_MAGIC = 0x42425243; // "BBRC"
+    static final short VERSION = 1;
+
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NO_ID = -1;
+    private static final BloodStatus[] BLOOD_STATUSES = BloodStatus.values();
+
+    /**
+     * Reads and writes one kind of record.
+     */
+    interface Format<T> {
+        byte kind();
+        void write(DataOutput out, T record) throws IOException;
+        T read(DataInput in) throws IOException;
+    }
+
+    // --- Record formats ---
+
+    static final Format<Donor> DONOR = new Format<Donor>() {
+        @Override
+        public byte kind() { return 1; }
+
+        @Override
+        public void write(DataOutput out, Donor donor) throws IOException {
+            out.writeInt(donor.getDonorId());
+            writePerson(out, donor);
+        }
+
+        @Override
+        public Donor read(DataInput in) throws IOException {
+            int donorId = in.readInt();
+            return new Donor(donorId,
+                    readString(in), readString(in), readString(in), readString(in),
+                    readDate(in), readString(in), readString(in), readString(in),
+                    readString(in), readString(in), readString(in));
+        }
+    };
+
+    static final Format<Recipient> RECIPIENT = new Format<Recipient>() {
+        @Override
+        public byte kind() { return 2; }
+
+        @Override
+        public void write(DataOutput out, Recipient recipient) throws IOException {
+            out.writeInt(recipient.getRecipientId());
+            writePerson(out, recipient);
+            writeString(out, recipient.getReasonForTransfusion());
+            writeDate(out, recipient.getDateReceived());
+        }
+
+        @Override
+        public Recipient read(DataInput in) throws IOException {
+            int recipientId = in.readInt();
+            return new Recipient(recipientId,
+                    readString(in), readString(in), readString(in), readString(in),
+                    readDate(in), readString(in), readString(in), readString(in),
+                    readString(in), readString(in), readString(in),
+                    readString(in), readDate(in));
+        }
+    };
+
+    static final Format<BloodUnit> UNIT = new Format<BloodUnit>() {
+        @Override
+        public byte kind() { return 3; }
+
+        @Override
+        public void write(DataOutput out, BloodUnit unit) throws IOException {
+            out.writeInt(unit.getUnitId());
+            out.writeInt(unit.getDonorId());
+            writeString(out, unit.getBloodGroup());
+            writeDate(out, unit.getDonationDate());
+            writeDate(out, unit.getExpiryDate());
+            out.writeByte(unit.getStatus().ordinal());
+            out.writeInt(unit.getRecipientId() == null ? NO_ID : unit.getRecipientId());
+        }
+
+        @Override
+        public BloodUnit read(DataInput in) throws IOException {
+            int unitId = in.readInt();
+            int donorId = in.readInt();
+            String bloodGroup = readString(in);
+            LocalDate donationDate = readDate(in);
+            LocalDate expiryDate = readDate(in);
+            BloodStatus status = BLOOD_STATUSES[in.readByte()];
+            int recipientId = in.readInt();
+            return new BloodUnit(unitId, donorId, bloodGroup, donationDate, expiryDate,
+                    status, recipientId == NO_ID ? null : recipientId);
+        }
+    };
+
+    private RecordCodec() {
+    }
+
+    // --- Whole files ---
+
+    /**
+     * Writes a header followed by every record. The caller owns (and closes) the stream.
+     */
+    static <T> void writeAll(OutputStream stream, Format<T> format, Collection<T> records) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(FILE_MAGIC);
+        out.writeShort(VERSION);
+        out.writeByte(format.kind());
+        out.writeInt(records.size());
+        for (T record : records) {
+            format.write(out, record);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a file written by writeAll, one record at a time.
+     */
+    static <T> ArrayList<T> readAll(InputStream stream, Format<T> format) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != FILE_MAGIC) {
+            throw new IOException("Not a record file");
+        }
+        short version = in.readShort();
+        if (version > VERSION) {
+            throw new IOException("Unsupported record file version " + version);
+        }
+        byte kind = in.readByte();
+        if (kind != format.kind()) {
+            throw new IOException("Expected record kind " + format.kind() + " but found " + kind);
+        }
+        int count = in.readInt();
+        ArrayList<T> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(format.read(in));
+        }
+        return records;
+    }
+
+    // --- Field helpers ---
+
+    private static void writePerson(DataOutput out, Person person) throws IOException {
+        writeString(out, person.getFirstName());
+        writeString(out, person.getLastName());
+        writeString(out, person.getFatherName());
+        writeString(out, person.getMotherName());
+        writeDate(out, person.getDob());
+        writeString(out, person.getMobileNo());
+        writeString(out, person.getGender());
+        writeString(out, person.getEmail());
+        writeString(out, person.getBloodGroup());
+        writeString(out, person.getCity());
+        writeString(out, person.getFullAddress());
+    }
+
+    private static void writeDate(DataOutput out, LocalDate date) throws IOException {
+        out.writeInt(date == null ? NO_DATE : (int) date.toEpochDay());
+    }
+
+    private static LocalDate readDate(DataInput in) throws IOException {
+        int epochDay = in.readInt();
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Strings are a varint of (byte length + 1) followed by UTF-8 bytes; 0 means null.
+     * Most fields are short, so the prefix is usually a single byte.
+     */
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int prefix = bytes.length + 1;
+        while ((prefix & ~0x7F) != 0) {
+            out.writeByte((prefix & 0x7F) | 0x80);
+            prefix >>>= 7;
+        }
+        out.writeByte(prefix);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int prefix = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            prefix |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        if (prefix == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[prefix - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,28 @@
+// File: src/com/bloodBank/model/RecordListing.java
+package com.bloodBank.model;
+
+import java.util.List;
+
+/**
+ * Everything a list view shows for one kind of record: the active records, which are
+ * held in memory, and how many older records sit in the history archive after them.
+ * The history is read a page at a time (e.g. BloodBankModel.getRecipientHistory).
+ */
+public final class RecordListing<T> {
+
+    private final List<T> active;
+    private final int historyCount;
+
+    RecordListing(List<T> active, int historyCount) {
+        this.active = active;
+        this.historyCount = historyCount;
+    }
+
+    public List<T> getActive() {
+        return active;
+    }
+
+    public int getHistoryCount() {
+        return historyCount;
+    }
+}
@@ -0,0 +1,238 @@
+// File: src/com/bloodBank/model/RecordTable.java
+package com.bloodBank.model;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.ToIntFunction;
+
+/**
+ * The model's records of one kind, in the order they were added, indexed by ID.
+ * Lookup and removal by ID are O(1). A removed record is only dropped from the
+ * index; its place in the ordered array is reclaimed by a compaction once removed
+ * entries outnumber live ones, so deleting never shifts the whole array.
+ *
+ * snapshot() hands out read-only views that share the ordered array instead of copying
+ * it. Appends only write past the end a snapshot can see, and the one operation that
+ * rewrites slots in place (compaction) first copies the array while a snapshot shares it.
+ *
+ * Every method is synchronized on the table. Iterating is not: a caller iterating
+ * while other threads may change the table must hold the table's monitor, or
+ * iterate a snapshot().
+ */
+class RecordTable<T> implements Iterable<T> {
+
+    /**
+     * Kept in step with the table (e.g. a search index). Called under the table's monitor.
+     */
+    interface Observer<T> {
+        /** Called once when the observer is attached, with every record in the table. */
+        void rebuild(Iterable<T> records);
+
+        void added(T record);
+
+        void removed(T record);
+    }
+
+    private final ToIntFunction<T> idOf;
+    private final IntHashMap<T> byId;
+    private Object[] records; // Insertion order; entries no longer in byId are dead
+    private int end; // Slots used in records, live or dead
+    private int maxId; // Highest ID ever added, so new IDs can continue after it
+    private boolean shared; // A snapshot reads records; it must not be rewritten in place
+    private Observer<T> observer;
+
+    RecordTable(ToIntFunction<T> idOf, Collection<T> initial) {
+        this.idOf = idOf;
+        this.byId = new IntHashMap<>(initial.size());
+        this.records = new Object[Math.max(16, initial.size() + initial.size() / 2)];
+        for (T record : initial) {
+            add(record);
+        }
+    }
+
+    /**
+     * Appends the record unless one with the same ID is already present.
+     * @return true if the record was added.
+     */
+    synchronized boolean add(T record) {
+        int id = idOf.applyAsInt(record);
+        if (byId.putIfAbsent(id, record) != null) {
+            return false;
+        }
+        maxId = Math.max(maxId, id);
+        if (end == records.length) {
+            if (byId.size() <= end / 2) {
+                compact(); // Plenty of dead entries, reuse their space
+            } else {
+                Object[] grown = new Object[records.length * 2];
+                System.arraycopy(records, 0, grown, 0, end);
+                records = grown;
+                shared = false;
+            }
+        }
+        records[end++] = record;
+        if (observer != null) {
+            observer.added(record);
+        }
+        return true;
+    }
+
+    synchronized T get(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Returns the record at a position in insertion order (0 is the oldest live record).
+     * Compacts first if records were removed, so positions count live records only.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized T getAt(int index) {
+        if (end != byId.size()) {
+            compact();
+        }
+        if (index < 0 || index >= end) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + end);
+        }
+        return (T) records[index];
+    }
+
+    /**
+     * @return The removed record, or null if there was none with that ID.
+     */
+    synchronized T remove(int id) {
+        T removed = byId.remove(id);
+        if (removed != null && end > 64 && byId.size() < (end - byId.size())) {
+            compact();
+        }
+        if (removed != null && observer != null) {
+            observer.removed(removed);
+        }
+        return removed;
+    }
+
+    synchronized int size() {
+        return byId.size();
+    }
+
+    /**
+     * @return The highest ID added so far (removed records included), or 0 if none.
+     */
+    synchronized int maxId() {
+        return maxId;
+    }
+
+    synchronized boolean isEmpty() {
+        return byId.size() == 0;
+    }
+
+    /**
+     * Returns a read-only list of the records as they are now, in insertion order. Later
+     * changes to the table do not show in it. Costs O(1), or one compaction if records
+     * were removed since it last ran.
+     */
+    synchronized List<T> snapshot() {
+        if (end != byId.size()) {
+            compact();
+        }
+        shared = true;
+        return new Snapshot<>(records, end);
+    }
+
+    /**
+     * Attaches the observer (replacing any other) and hands it the current records, so
+     * no change can slip in between. Does nothing if it is already attached.
+     */
+    synchronized void observe(Observer<T> observer) {
+        if (this.observer == observer) {
+            return;
+        }
+        observer.rebuild(this);
+        this.observer = observer;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            private int next = advance(0);
+
+            @Override
+            public boolean hasNext() {
+                return next < end;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (next >= end) {
+                    throw new NoSuchElementException();
+                }
+                T record = (T) records[next];
+                next = advance(next + 1);
+                return record;
+            }
+        };
+    }
+
+    // --- Helpers ---
+
+    // Index of the first live entry at or after i
+    private int advance(int i) {
+        boolean allLive = byId.size() == end;
+        while (i < end && !allLive && !isLive(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean isLive(int i) {
+        T record = (T) records[i];
+        return byId.get(idOf.applyAsInt(record)) == record;
+    }
+
+    private void compact() {
+        // Copy-on-write: while a snapshot shares the array, compact into a new one
+        Object[] target = shared ? new Object[records.length] : records;
+        int live = 0;
+        for (int i = 0; i < end; i++) {
+            if (isLive(i)) {
+                target[live++] = records[i];
+            }
+        }
+        for (int i = live; i < end && target == records; i++) {
+            records[i] = null;
+        }
+        records = target;
+        shared = false;
+        end = live;
+    }
+
+    // The first size slots of a records array, which the table no longer writes to
+    private static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[] records;
+        private final int size;
+
+        Snapshot(Object[] records, int size) {
+            this.records = records;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+            }
+            return (T) records[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
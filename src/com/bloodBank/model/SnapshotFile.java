@@ -0,0 +1,167 @@
+// File: src/com/bloodBank/model/SnapshotFile.java
+package com.bloodBank.model;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Crash-safe reading and writing of a .dat snapshot.
+ *
+ * A snapshot is written to "name.tmp", forced to disk and then atomically renamed over
+ * "name"; the generation it replaces is kept as "name.bak". Each file ends with a trailer
+ * holding a CRC32 of the contents, so a damaged file is detected on load and the
+ * previous generation is used instead.
+ *
+ * Trailer layout: [long crc32][long payload length][int TRAILER_MAGIC]
+ */
+class SnapshotFile {
+
+    private static final int TRAILER_MAGIC = 0x424B5350; // "BKSP"
+    private static final int TRAILER_SIZE = 8 + 8 + 4;
+    private static final int SERIALIZATION_MAGIC = 0xACED; // How pre-trailer (serialized) snapshots start
+
+    /** Writes the snapshot contents. */
+    interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+
+    /** Decodes verified snapshot contents. */
+    interface Reader<T> {
+        T read(InputStream in) throws Exception;
+    }
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes a new generation of the snapshot. The live file is only ever replaced
+     * by a complete, synced file, so a crash at any point leaves a readable snapshot.
+     */
+    static void write(String fileName, Writer writer) throws IOException {
+        Path target = Paths.get(fileName);
+        Path temp = Paths.get(fileName + ".tmp");
+        Path backup = Paths.get(fileName + ".bak");
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            OutputStream out = new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024), crc);
+            writer.write(out);
+            out.flush();
+
+            long payloadLength = channel.position();
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            trailer.putLong(crc.getValue()).putLong(payloadLength).putInt(TRAILER_MAGIC).flip();
+            while (trailer.hasRemaining()) {
+                channel.write(trailer);
+            }
+            channel.force(true);
+        }
+
+        // Keep the current generation as the fallback, then swap the new one in
+        if (Files.exists(target)) {
+            Files.move(target, backup, StandardCopyOption.REPLACE_EXISTING);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(target);
+    }
+
+    /**
+     * Loads the newest readable generation of the snapshot.
+     * @return The decoded contents, or null if no snapshot has been written yet.
+     * @throws IOException If snapshot files exist but none of them can be read.
+     */
+    static <T> T read(String fileName, Reader<T> reader) throws IOException {
+        Path target = Paths.get(fileName);
+        // A crash between the two renames in write() leaves the newest generation in name.tmp
+        Path temp = Paths.get(fileName + ".tmp");
+        Path backup = Paths.get(fileName + ".bak");
+
+        String firstError = null;
+        for (Path candidate : new Path[] { target, temp, backup }) {
+            if (!Files.exists(candidate)) {
+                continue;
+            }
+            try {
+                // name.tmp is only ever written with a trailer, so a tmp without one is torn
+                T result = reader.read(new ByteArrayInputStream(readVerified(candidate, candidate != temp)));
+                if (candidate != target) {
+                    System.out.println("Recovered " + fileName + " from " + candidate.getFileName() + ".");
+                }
+                return result;
+            } catch (Exception e) {
+                System.out.println("Snapshot " + candidate.getFileName() + " is unreadable: " + e.getMessage());
+                if (firstError == null) {
+                    firstError = e.getMessage();
+                }
+            }
+        }
+        if (firstError != null) {
+            throw new IOException("No readable generation of " + fileName + " (" + firstError + ")");
+        }
+        return null;
+    }
+
+    /**
+     * Returns the snapshot contents after checking the trailer.
+     * @param allowLegacy Accept a file without a trailer if it is a serialized snapshot
+     *                    written before trailers existed; it is returned as-is.
+     */
+    private static byte[] readVerified(Path path, boolean allowLegacy) throws IOException {
+        byte[] data = Files.readAllBytes(path);
+        ByteBuffer trailer = data.length < TRAILER_SIZE
+                ? null : ByteBuffer.wrap(data, data.length - TRAILER_SIZE, TRAILER_SIZE);
+        if (trailer == null || trailer.getInt(trailer.position() + 16) != TRAILER_MAGIC) {
+            if (allowLegacy && isSerialized(data)) {
+                return data; // Legacy snapshot without a trailer
+            }
+            throw new IOException("missing trailer");
+        }
+        long storedCrc = trailer.getLong();
+        long payloadLength = trailer.getLong();
+        if (payloadLength != data.length - TRAILER_SIZE) {
+            throw new IOException("length mismatch");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, (int) payloadLength);
+        if (crc.getValue() != storedCrc) {
+            throw new IOException("checksum mismatch");
+        }
+        byte[] payload = new byte[(int) payloadLength];
+        System.arraycopy(data, 0, payload, 0, payload.length);
+        return payload;
+    }
+
+    private static boolean isSerialized(byte[] data) {
+        return data.length >= 2 && ((data[0] & 0xFF) << 8 | (data[1] & 0xFF)) == SERIALIZATION_MAGIC;
+    }
+
+    // Makes the renames durable (supported on Linux, ignored where it is not)
+    private static void syncDirectory(Path file) {
+        Path dir = file.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on this platform
+        }
+    }
+}
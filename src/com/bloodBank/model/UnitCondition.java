@@ -0,0 +1,32 @@
+// File: src/com/bloodBank/model/UnitCondition.java
+package com.bloodBank.model;
+
+/**
+ * How a blood unit should be shown: its status, with in-stock units split by how close
+ * they are to expiry. An in-stock unit already past its expiry date (not yet swept by
+ * reconcileExpiredUnits) counts as EXPIRED.
+ */
+public enum UnitCondition {
+    IN_STOCK,
+    EXPIRING_SOON,
+    EXPIRED,
+    ISSUED;
+
+    /**
+     * @param today The current epoch day (see DayClock).
+     * @param warningDays How many days ahead counts as "soon".
+     */
+    public static UnitCondition of(BloodUnit unit, int today, int warningDays) {
+        switch (unit.getStatus()) {
+            case ISSUED:
+                return ISSUED;
+            case EXPIRED:
+                return EXPIRED;
+            default:
+                if (unit.isExpired(today)) {
+                    return EXPIRED;
+                }
+                return unit.isExpiringSoon(today, warningDays) ? EXPIRING_SOON : IN_STOCK;
+        }
+    }
+}
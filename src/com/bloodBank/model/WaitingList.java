@@ -0,0 +1,176 @@
+// File: src/com/bloodBank/model/WaitingList.java
+package com.bloodBank.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recipients still waiting for blood, kept as one FIFO queue per blood group.
+ * Queues are updated as recipients are queued, fulfilled or deleted, so matching
+ * a new donation never rescans the recipient history.
+ *
+ * Each queue is a LinkedHashMap keyed by recipient ID: insertion order gives the
+ * FIFO order and removal by ID is O(1). Every queued recipient also gets an arrival
+ * number, which orders recipients across groups; it comes from the order they are queued
+ * in (rebuild() takes the recipients in registration order), never from their IDs,
+ * since imported recipients keep whatever IDs they came with. The number waiting in
+ * each group is kept as a plain counter for the shortage report.
+ *
+ * Callers hold the lock of every group an operation touches (see GroupLocks);
+ * snapshot() and the counts can be read at any time without a lock.
+ */
+class WaitingList {
+
+    private final LinkedHashMap<Integer, Recipient>[] byGroup;
+    // Every pending recipient (including unknown blood groups), by arrival number, and each
+    // one's arrival number by ID. Shared by all groups, so concurrent maps rather than lock-guarded.
+    private final ConcurrentSkipListMap<Long, Recipient> all = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Integer, Long> arrivalOf = new ConcurrentHashMap<>();
+    private final AtomicLong arrivals = new AtomicLong(); // The last arrival number handed out
+    private final AtomicIntegerArray counts = new AtomicIntegerArray(BloodGroups.COUNT); // Queue sizes, by group code
+    // Bumped after every change to all; a cached snapshot is reused while its version is current
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    private static final class Snapshot {
+        final long version;
+        final List<Recipient> recipients;
+
+        Snapshot(long version, List<Recipient> recipients) {
+            this.version = version;
+            this.recipients = recipients;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    WaitingList() {
+        byGroup = new LinkedHashMap[BloodGroups.COUNT];
+        for (int i = 0; i < byGroup.length; i++) {
+            byGroup[i] = new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Rebuilds the queues from scratch (after loading).
+     * @param recipients In the order they registered.
+     */
+    void rebuild(Iterable<Recipient> recipients) {
+        all.clear();
+        arrivalOf.clear();
+        version.incrementAndGet();
+        for (LinkedHashMap<Integer, Recipient> queue : byGroup) {
+            queue.clear();
+        }
+        for (int i = 0; i < BloodGroups.COUNT; i++) {
+            counts.set(i, 0);
+        }
+        for (Recipient recipient : recipients) {
+            enqueue(recipient);
+        }
+    }
+
+    /**
+     * Adds the recipient to the back of its group's queue if they are still pending.
+     * A recipient who is already queued keeps their place.
+     */
+    void enqueue(Recipient recipient) {
+        if (recipient.didReceiveUnit()) {
+            return;
+        }
+        long arrival = arrivals.incrementAndGet();
+        if (arrivalOf.putIfAbsent(recipient.getRecipientId(), arrival) == null) {
+            all.put(arrival, recipient);
+            version.incrementAndGet();
+        }
+        int group = BloodGroups.indexOf(recipient.getBloodGroup());
+        if (group >= 0 && byGroup[group].put(recipient.getRecipientId(), recipient) == null) {
+            counts.incrementAndGet(group);
+        }
+    }
+
+    /**
+     * Takes the recipient off the list (fulfilled or deleted).
+     */
+    void remove(Recipient recipient) {
+        Long arrival = arrivalOf.remove(recipient.getRecipientId());
+        if (arrival != null) {
+            all.remove(arrival);
+            version.incrementAndGet();
+        }
+        int group = BloodGroups.indexOf(recipient.getBloodGroup());
+        if (group >= 0 && byGroup[group].remove(recipient.getRecipientId()) != null) {
+            counts.decrementAndGet(group);
+        }
+    }
+
+    /**
+     * Finds who should get a new unit of the given group: the first recipient of the
+     * same group, otherwise the longest-waiting recipient (lowest arrival number) among
+     * the compatible groups.
+     * @return The recipient (still on the list), or null if nobody can use the unit.
+     */
+    Recipient firstMatchFor(int unitGroup) {
+        Recipient exact = head(unitGroup);
+        if (exact != null) {
+            return exact;
+        }
+        int compatible = BloodGroups.recipientsOf(unitGroup);
+        Recipient best = null;
+        for (int group = 0; group < BloodGroups.COUNT; group++) {
+            if ((compatible & (1 << group)) == 0) {
+                continue;
+            }
+            Recipient candidate = head(group);
+            if (candidate != null && (best == null || arrivalOf(candidate) < arrivalOf(best))) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    int count(int group) {
+        return counts.get(group);
+    }
+
+    /**
+     * Copies the number of recipients waiting in every group into the array, indexed by group code.
+     */
+    void copyCounts(int[] into) {
+        for (int i = 0; i < BloodGroups.COUNT; i++) {
+            into[i] = counts.get(i);
+        }
+    }
+
+    /**
+     * @return A read-only list of every pending recipient, in arrival order. The list is
+     *         built once per change to the waiting list and shared by the callers in between.
+     */
+    List<Recipient> snapshot() {
+        long current = version.get();
+        Snapshot cached = snapshot;
+        if (cached != null && cached.version == current) {
+            return cached.recipients;
+        }
+        // Built after reading the version: if a change slips in meanwhile, the version
+        // has moved on and the next call builds again
+        List<Recipient> recipients = Collections.unmodifiableList(new ArrayList<>(all.values()));
+        snapshot = new Snapshot(current, recipients);
+        return recipients;
+    }
+
+    private long arrivalOf(Recipient recipient) {
+        return arrivalOf.get(recipient.getRecipientId());
+    }
+
+    private Recipient head(int group) {
+        Iterator<Recipient> it = byGroup[group].values().iterator();
+        return it.hasNext() ? it.next() : null;
+    }
+}
@@ -322,6 +322,14 @@ public class AddDonorView extends JDialog {
         addButton.addActionListener(listener);
     }
 
+    /**
+     * The controller turns the add button off while a save is in progress, so a
+     * double-click does not submit the same record twice.
+     */
+    public void setAddEnabled(boolean enabled) {
+        addButton.setEnabled(enabled);
+    }
+
     public void showErrorMessage(String message) {
         JOptionPane.showMessageDialog(this, message, "Input Error", JOptionPane.ERROR_MESSAGE);
     }
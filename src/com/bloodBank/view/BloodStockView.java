@@ -3,17 +3,22 @@ package com.bloodBank.view;
 
 import com.bloodBank.model.BloodUnit;
 import com.bloodBank.model.BloodStatus;
+import com.bloodBank.model.BloodGroups;
+import com.bloodBank.model.DayClock;
+import com.bloodBank.model.UnitCondition;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.AbstractTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class BloodStockView extends JDialog {
@@ -31,9 +36,9 @@ public class BloodStockView extends JDialog {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MMM-yyyy");
 
     private JTable detailedTable;
-    private DefaultTableModel detailedTableModel;
+    private UnitTableModel detailedTableModel;
     private JTable summaryTable; // NEW
-    private DefaultTableModel summaryTableModel; // NEW
+    private StockSummaryModel summaryTableModel; // NEW
 
     public BloodStockView(Frame owner) {
         super(owner, "Detailed Blood Inventory & Summary", true);
@@ -76,15 +81,7 @@ public class BloodStockView extends JDialog {
         panel.add(title, BorderLayout.NORTH);
 
         // Model for the summary table
-        String[] summaryCols = {"Blood Group", "In Stock Units"};
-        summaryTableModel = new DefaultTableModel(summaryCols, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) { return false; }
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                return columnIndex == 1 ? Integer.class : String.class;
-            }
-        };
+        summaryTableModel = new StockSummaryModel();
 
         summaryTable = new JTable(summaryTableModel);
         
@@ -104,9 +101,6 @@ public class BloodStockView extends JDialog {
         scroll.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10)); // Inner padding
         panel.add(scroll, BorderLayout.CENTER);
         
-        // Initialize 8 blood groups (will be updated by controller)
-        initializeSummaryData(); 
-        
         return panel;
     }
 
@@ -116,10 +110,7 @@ public class BloodStockView extends JDialog {
             "Unit ID", "Blood Group", "Donor ID",
             "Donation Date", "Expiry Date", "Status"
         };
-        detailedTableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) { return false; }
-        };
+        detailedTableModel = new UnitTableModel(columnNames);
 
         // --- Setup the JTable ---
         detailedTable = new JTable(detailedTableModel);
@@ -155,54 +146,174 @@ public class BloodStockView extends JDialog {
     }
 
     /**
-     * Initializes the summary table with all 8 blood groups and zero counts.
+     * Sets how many days ahead an in-stock unit is highlighted as expiring soon.
+     * Takes effect on the next displayStock.
      */
-    private void initializeSummaryData() {
-        // This is a placeholder, as the actual BloodGroup enum is not provided.
-        // Assuming the BloodGroup enum provides A_POS, O_NEG, etc.
-        String[] allGroups = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
-        for (String group : allGroups) {
-            summaryTableModel.addRow(new Object[]{group, 0});
-        }
+    public void setExpiryWarningDays(int days) {
+        detailedTableModel.warningDays = days;
     }
 
     /**
      * The controller will call this to populate the detailed table and summary.
+     * Shows the active units, followed by issued and expired units from the history archive
+     * (fetched page by page as they scroll into view). In-stock units are always active,
+     * so the summary only needs the active list.
+     */
+    public void displayStock(List<BloodUnit> units, int historyCount,
+                             RecordTableModel.PageLoader<BloodUnit> history) {
+        // 1. Show the units in the detailed table
+        detailedTableModel.setRecords(units, historyCount, history);
+
+        // 2. Count the in-stock units per group and update the summary in one go
+        summaryTableModel.countInStock(units);
+    }
+
+    /**
+     * @return The detailed table's model, so the controller can apply changes while the dialog is open.
+     */
+    public RecordTableModel<BloodUnit> getUnitTableModel() {
+        return detailedTableModel;
+    }
+
+    /**
+     * Shows the given in-stock counts in the summary.
+     * @param counts Units in stock per blood group, indexed like BloodGroups.ALL.
+     */
+    public void displayStockCounts(int[] counts) {
+        summaryTableModel.setCounts(counts);
+    }
+
+    // ------------------------------------
+    // Table Models
+    // ------------------------------------
+
+    /**
+     * Detailed table model. Each active unit's condition (and so its row color) is worked
+     * out in setRecords, and again only for rows that change, so painting a row is a lookup. History rows are
+     * always issued or expired, so theirs follows from the status alone.
      */
-    public void displayStock(ArrayList<BloodUnit> units) {
-        // 1. Clear previous data
-        detailedTableModel.setRowCount(0);
-
-        // Map to hold summary counts
-        Map<String, Integer> stockCounts = new HashMap<>();
-        String[] allGroups = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
-        for (String group : allGroups) {
-            stockCounts.put(group, 0); // Initialize counts
+    private static class UnitTableModel extends RecordTableModel<BloodUnit> {
+
+        private int warningDays = BloodUnit.DEFAULT_EXPIRY_WARNING_DAYS;
+        private int today;
+        private ArrayList<UnitCondition> conditions = new ArrayList<>(); // One per active row
+        private final Map<LocalDate, String> formattedDates = new HashMap<>(); // Units share few dates
+
+        UnitTableModel(String[] columnNames) {
+            super(columnNames);
         }
 
-        // 2. Loop through the list of BloodUnit objects for details and summary count
-        for (BloodUnit unit : units) {
-            // Update detailed table
-            Object[] rowData = {
-                unit.getUnitId(),
-                unit.getBloodGroup(),
-                unit.getDonorId(),
-                unit.getDonationDate().format(DATE_FORMATTER),
-                unit.getExpiryDate().format(DATE_FORMATTER),
-                unit.getStatus()
-            };
-            detailedTableModel.addRow(rowData);
-            
-            // Update stock summary count
-            if (unit.getStatus() == BloodStatus.IN_STOCK && stockCounts.containsKey(unit.getBloodGroup())) {
-                stockCounts.put(unit.getBloodGroup(), stockCounts.get(unit.getBloodGroup()) + 1);
+        @Override
+        public void setRecords(List<BloodUnit> active, int historyCount, PageLoader<BloodUnit> history) {
+            today = DayClock.current().today();
+            int size = active == null ? 0 : active.size();
+            ArrayList<UnitCondition> computed = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                computed.add(UnitCondition.of(active.get(i), today, warningDays));
             }
+            conditions = computed;
+            super.setRecords(active, historyCount, history);
         }
-        
-        // 3. Update the summary table model
-        for (int i = 0; i < summaryTableModel.getRowCount(); i++) {
-            String group = (String) summaryTableModel.getValueAt(i, 0);
-            summaryTableModel.setValueAt(stockCounts.getOrDefault(group, 0), i, 1);
+
+        @Override
+        protected void rowInserted(int row, BloodUnit unit) {
+            conditions.add(row, UnitCondition.of(unit, today, warningDays));
+        }
+
+        @Override
+        protected void rowUpdated(int row, BloodUnit unit) {
+            conditions.set(row, UnitCondition.of(unit, today, warningDays));
+        }
+
+        @Override
+        protected void rowRemoved(int row) {
+            conditions.remove(row);
+        }
+
+        /**
+         * @return The condition of the unit in the row, or null while its history page is loading.
+         */
+        UnitCondition conditionAt(int row) {
+            if (row < conditions.size()) {
+                return conditions.get(row);
+            }
+            BloodUnit unit = getRecordAt(row);
+            return unit == null ? null : UnitCondition.of(unit, today, warningDays);
+        }
+
+        @Override
+        protected int idOf(BloodUnit unit) {
+            return unit.getUnitId();
+        }
+
+        @Override
+        protected Object valueAt(BloodUnit unit, int column) {
+            switch (column) {
+                case 0: return unit.getUnitId();
+                case 1: return unit.getBloodGroup();
+                case 2: return unit.getDonorId();
+                case 3: return format(unit.getDonationDate());
+                case 4: return format(unit.getExpiryDate());
+                case 5: return unit.getStatus();
+                default: return null;
+            }
+        }
+
+        private String format(LocalDate date) {
+            return formattedDates.computeIfAbsent(date, DATE_FORMATTER::format);
+        }
+    }
+
+    /**
+     * Summary table model: one row per blood group (in BloodGroups order), counts kept in an int array.
+     */
+    private static class StockSummaryModel extends AbstractTableModel {
+
+        private static final String[] COLUMNS = {"Blood Group", "In Stock Units"};
+
+        private final int[] counts = new int[BloodGroups.COUNT];
+
+        void countInStock(List<BloodUnit> units) {
+            Arrays.fill(counts, 0);
+            for (BloodUnit unit : units) {
+                if (unit.getStatus() == BloodStatus.IN_STOCK) {
+                    int row = BloodGroups.indexOf(unit.getBloodGroup());
+                    if (row >= 0) {
+                        counts[row]++;
+                    }
+                }
+            }
+            fireTableDataChanged();
+        }
+
+        void setCounts(int[] counts) {
+            System.arraycopy(counts, 0, this.counts, 0, this.counts.length);
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return BloodGroups.COUNT;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int columnIndex) {
+            return columnIndex == 1 ? Integer.class : String.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return column == 0 ? BloodGroups.ALL[row] : (Object) counts[row];
         }
     }
 
@@ -228,14 +339,8 @@ public class BloodStockView extends JDialog {
             
             Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
 
-            // Get the status from the table model for the current row
-            BloodStatus status = (BloodStatus) table.getModel().getValueAt(row, 5);
-            
-            // Get expiry date for expiring soon check
-            String expiryDateStr = (String) table.getModel().getValueAt(row, 4);
-            LocalDate expiryDate = LocalDate.parse(expiryDateStr, DATE_FORMATTER);
-            boolean isExpiringSoon = expiryDate.isBefore(LocalDate.now().plusDays(7)) && 
-                                     status == BloodStatus.IN_STOCK;
+            // Precomputed condition of the row's unit (null while its history page is loading)
+            UnitCondition condition = detailedTableModel.conditionAt(row);
 
             // Set colors based on status
             if (isSelected) {
@@ -243,7 +348,10 @@ public class BloodStockView extends JDialog {
                 c.setForeground(Color.BLACK); // Clear text color
             } else {
                 c.setForeground(Color.BLACK); 
-                switch (status) {
+                if (condition == null) { // Row still loading
+                    c.setBackground(Color.WHITE);
+                    c.setForeground(Color.GRAY);
+                } else switch (condition) {
                     case EXPIRED:
                         c.setBackground(COLOR_EXPIRED);
                         break;
@@ -251,12 +359,11 @@ public class BloodStockView extends JDialog {
                         c.setBackground(COLOR_USED);
                         c.setForeground(Color.GRAY.darker()); // Dim the text for used units
                         break;
+                    case EXPIRING_SOON:
+                        c.setBackground(COLOR_EXPIRING_SOON);
+                        break;
                     case IN_STOCK:
-                        if (isExpiringSoon) {
-                            c.setBackground(COLOR_EXPIRING_SOON);
-                        } else {
-                            c.setBackground(COLOR_IN_STOCK);
-                        }
+                        c.setBackground(COLOR_IN_STOCK);
                         break;
                     default:
                         c.setBackground(Color.WHITE);
@@ -1,6 +1,7 @@
 // File: src/com/bloodBank/view/DashboardView.java
 package com.bloodBank.view;
 
+import com.bloodBank.model.BloodGroups;
 import com.bloodBank.view.components.ModernButton;
 import javax.swing.*;
 import javax.swing.border.Border;
@@ -15,6 +16,7 @@ public class DashboardView extends JFrame {
     private static final Color COLOR_BACKGROUND = new Color(245, 247, 249);
     private static final Color COLOR_FOREGROUND = new Color(50, 50, 50);
     private static final Color COLOR_BORDER = new Color(200, 200, 200);
+    private static final Color COLOR_OUT_OF_STOCK = new Color(184, 77, 75);
 
     // --- Components ---
     private JButton addDonorButton;
@@ -24,12 +26,15 @@ public class DashboardView extends JFrame {
     private JButton addRecipientButton;
     private JButton removeRecipientButton;
     private JButton viewRecipientsButton;
+    private final JLabel[] stockLabels = new JLabel[BloodGroups.COUNT]; // Live levels, by group code
+    private final JLabel[] waitingLabels = new JLabel[BloodGroups.COUNT];
 
     // Constructor
     public DashboardView() {
         initFrame();
         initTitlePanel();
         initButtonPanel();
+        initStockLevelPanel();
         setLocationRelativeTo(null);
     }
 
@@ -97,6 +102,36 @@ public class DashboardView extends JFrame {
         add(mainButtonPanel, BorderLayout.CENTER);
     }
     
+    // Live Stock Levels: one tile per blood group, kept current by the controller
+    private void initStockLevelPanel() {
+        JPanel levelsPanel = new JPanel(new GridLayout(1, BloodGroups.COUNT, 15, 15));
+        levelsPanel.setBorder(BorderFactory.createCompoundBorder(
+                new EmptyBorder(0, 40, 30, 40), createStyledBorder("Live Stock Levels")));
+        levelsPanel.setBackground(COLOR_BACKGROUND);
+
+        for (int group = 0; group < BloodGroups.COUNT; group++) {
+            JLabel groupLabel = new JLabel(BloodGroups.ALL[group], SwingConstants.CENTER);
+            groupLabel.setFont(new Font("SansSerif", Font.BOLD, 24));
+            groupLabel.setForeground(COLOR_FOREGROUND);
+
+            stockLabels[group] = new JLabel("-", SwingConstants.CENTER);
+            stockLabels[group].setFont(new Font("SansSerif", Font.BOLD, 32));
+            waitingLabels[group] = new JLabel(" ", SwingConstants.CENTER);
+            waitingLabels[group].setFont(new Font("SansSerif", Font.PLAIN, 16));
+            waitingLabels[group].setForeground(COLOR_FOREGROUND);
+
+            JPanel tile = new JPanel(new BorderLayout());
+            tile.setBackground(Color.WHITE);
+            tile.setBorder(BorderFactory.createCompoundBorder(
+                    BorderFactory.createLineBorder(COLOR_BORDER, 1), new EmptyBorder(8, 8, 8, 8)));
+            tile.add(groupLabel, BorderLayout.NORTH);
+            tile.add(stockLabels[group], BorderLayout.CENTER);
+            tile.add(waitingLabels[group], BorderLayout.SOUTH);
+            levelsPanel.add(tile);
+        }
+        add(levelsPanel, BorderLayout.SOUTH);
+    }
+
     private Border createStyledBorder(String title) {
         Font titleFont = new Font("SansSerif", Font.BOLD, 22);
         TitledBorder titledBorder = BorderFactory.createTitledBorder(
@@ -111,6 +146,33 @@ public class DashboardView extends JFrame {
         return BorderFactory.createCompoundBorder(titledBorder, padding);
     }
 
+    /**
+     * Enables or disables every action button (e.g. while the data is still loading).
+     */
+    public void setActionsEnabled(boolean enabled) {
+        addDonorButton.setEnabled(enabled);
+        removeDonorButton.setEnabled(enabled);
+        viewDonorsButton.setEnabled(enabled);
+        addRecipientButton.setEnabled(enabled);
+        removeRecipientButton.setEnabled(enabled);
+        viewRecipientsButton.setEnabled(enabled);
+        viewBloodStockButton.setEnabled(enabled);
+        setTitle(enabled ? "Blood Bank Dashboard" : "Blood Bank Dashboard (loading data...)");
+    }
+
+    /**
+     * Shows the current stock levels. Arrays are indexed like BloodGroups.ALL.
+     * @param inStock Units in stock per group.
+     * @param waiting Recipients waiting per group.
+     */
+    public void showStockLevels(int[] inStock, int[] waiting) {
+        for (int group = 0; group < BloodGroups.COUNT; group++) {
+            stockLabels[group].setText(Integer.toString(inStock[group]));
+            stockLabels[group].setForeground(inStock[group] == 0 ? COLOR_OUT_OF_STOCK : COLOR_FOREGROUND);
+            waitingLabels[group].setText(waiting[group] == 0 ? "in stock" : "in stock, " + waiting[group] + " waiting");
+        }
+    }
+
     // --- Donor Listeners ---
     public void addAddDonorListener(ActionListener listener) {
         addDonorButton.addActionListener(listener);
@@ -2,14 +2,15 @@
 package com.bloodBank.view;
 
 import com.bloodBank.model.Donor;
+import com.bloodBank.view.components.SearchBar;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableColumn;
 import java.awt.*;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * A JDialog (pop-up window) to display a list of ALL donor information.
@@ -23,7 +24,8 @@ public class DonorInfoView extends JDialog {
     private static final Color PASTEL_GRID_COLOR = new Color(220, 220, 220);
 
     private JTable donorTable;
-    private DefaultTableModel tableModel;
+    private SearchBar searchBar;
+    private RecordTableModel<Donor> tableModel;
 
     /**
      * Constructor for the Donor Info pop-up.
@@ -40,11 +42,16 @@ public class DonorInfoView extends JDialog {
             "Father's Name", "Mother's Name"
         };
         
-        // Create a non-editable table model
-        tableModel = new DefaultTableModel(columnNames, 0) {
+        // Create a non-editable table model that reads each cell from its Donor
+        tableModel = new RecordTableModel<Donor>(columnNames) {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // All cells non-editable
+            protected Object valueAt(Donor donor, int column) {
+                return donorValue(donor, column);
+            }
+
+            @Override
+            protected int idOf(Donor donor) {
+                return donor.getDonorId();
             }
         };
 
@@ -79,8 +86,12 @@ public class DonorInfoView extends JDialog {
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
         scrollPane.getViewport().setBackground(PASTEL_BACKGROUND);
         
+        // --- Search Bar ---
+        searchBar = new SearchBar(PASTEL_BACKGROUND);
+
         // --- Add components to the dialog ---
         setLayout(new BorderLayout());
+        add(searchBar, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
 
         // --- Window Configuration ---
@@ -132,43 +143,53 @@ public class DonorInfoView extends JDialog {
      * @param donorList A List of all Donor objects from the model.
      */
     public void displayDonors(List<Donor> donorList) {
-        // Clear any old data
-        tableModel.setRowCount(0);
-        
-        if (donorList == null) return;
-
-        // --- Add data from the donor object ---
-        for (Donor donor : donorList) {
-            // Get all data points from the donor object
-            int id = donor.getDonorId();
-            String fullName = donor.getFirstName() + " " + donor.getLastName();
-            String bloodGroup = donor.getBloodGroup();
-            String mobileNo = donor.getMobileNo();
-            String email = donor.getEmail();
-            String gender = donor.getGender();
-            LocalDate dob = donor.getDob();
-            String city = donor.getCity();
-            String address = donor.getFullAddress();
-            String fatherName = donor.getFatherName();
-            String motherName = donor.getMotherName();
-            
-            // Create an array for the row data
-            Object[] rowData = {
-                id,
-                fullName,
-                bloodGroup,
-                mobileNo,
-                email,
-                gender,
-                (dob != null ? dob.toString() : "N/A"), // Convert date to string
-                city,
-                address,
-                fatherName,
-                motherName
-            };
-            
-            // Add the row to the table model
-            tableModel.addRow(rowData);
+        tableModel.setRecords(donorList);
+    }
+
+    /**
+     * Shows only the donors matching the search text.
+     * @param matches The model's search results.
+     */
+    public void displaySearchResults(List<Donor> matches) {
+        tableModel.setRecords(matches);
+    }
+
+    /**
+     * @param listener Called with the search text each time it is edited.
+     */
+    public void addSearchListener(Consumer<String> listener) {
+        searchBar.addSearchListener(listener);
+    }
+
+    public String getSearchText() {
+        return searchBar.getSearchText();
+    }
+
+    /**
+     * @return The table's model, so the controller can apply changes while the dialog is open.
+     */
+    public RecordTableModel<Donor> getTableModel() {
+        return tableModel;
+    }
+
+    // Value for one cell, in the order of the column list
+    private static Object donorValue(Donor donor, int column) {
+        switch (column) {
+            case 0: return donor.getDonorId();
+            case 1: return donor.getFirstName() + " " + donor.getLastName();
+            case 2: return donor.getBloodGroup();
+            case 3: return donor.getMobileNo();
+            case 4: return donor.getEmail();
+            case 5: return donor.getGender();
+            case 6: {
+                LocalDate dob = donor.getDob();
+                return (dob != null ? dob.toString() : "N/A");
+            }
+            case 7: return donor.getCity();
+            case 8: return donor.getFullAddress();
+            case 9: return donor.getFatherName();
+            case 10: return donor.getMotherName();
+            default: return null;
         }
     }
 }
\ No newline at end of file
@@ -2,14 +2,15 @@
 package com.bloodBank.view;
 
 import com.bloodBank.model.Recipient;
+import com.bloodBank.view.components.SearchBar;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import javax.swing.table.TableColumn;
 import java.awt.*;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * A JDialog (pop-up window) to display a list of ALL recipient information.
@@ -23,7 +24,8 @@ public class RecipientInfoView extends JDialog {
     private static final Color PASTEL_GRID_COLOR = new Color(220, 220, 220);  // Light Gray Grid
 
     private JTable recipientTable;
-    private DefaultTableModel tableModel;
+    private SearchBar searchBar;
+    private RecordTableModel<Recipient> tableModel;
 
     /**
      * Constructor for the Recipient Info pop-up.
@@ -42,11 +44,16 @@ public class RecipientInfoView extends JDialog {
             "Father's Name", "Mother's Name", "Reason for Blood" // <-- NEW Column
         };
         
-        // Create a non-editable table model
-        tableModel = new DefaultTableModel(columnNames, 0) {
+        // Create a non-editable table model that reads each cell from its Recipient
+        tableModel = new RecordTableModel<Recipient>(columnNames) {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // All cells non-editable
+            protected Object valueAt(Recipient recipient, int column) {
+                return recipientValue(recipient, column);
+            }
+
+            @Override
+            protected int idOf(Recipient recipient) {
+                return recipient.getRecipientId();
             }
         };
 
@@ -81,8 +88,12 @@ public class RecipientInfoView extends JDialog {
         scrollPane.setBorder(BorderFactory.createEmptyBorder()); // Remove default border
         scrollPane.getViewport().setBackground(PASTEL_BACKGROUND); // Set viewport color
 
+        // --- Search Bar ---
+        searchBar = new SearchBar(PASTEL_BACKGROUND);
+
         // --- Add components to the dialog ---
         setLayout(new BorderLayout());
+        add(searchBar, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
 
         // --- Window Configuration (MODIFIED) ---
@@ -140,52 +151,71 @@ public class RecipientInfoView extends JDialog {
      * @param recipientList A List of all Recipient objects from the model.
      */
     public void displayRecipients(List<Recipient> recipientList) {
-        // Clear any old data
-        tableModel.setRowCount(0);
-        
-        if (recipientList == null) return; // Safety check
-
-        // --- Add data from the recipient object ---
-        for (Recipient recipient : recipientList) {
-            // Get all data points from the recipient object
-            int id = recipient.getRecipientId();
-            String fullName = recipient.getFirstName() + " " + recipient.getLastName();
-            String bloodGroup = recipient.getBloodGroup();
-            String mobileNo = recipient.getMobileNo();
-            String email = recipient.getEmail();
-            String gender = recipient.getGender();
-            LocalDate dob = recipient.getDob();
-            String city = recipient.getCity();
-            String address = recipient.getFullAddress();
-            String fatherName = recipient.getFatherName();
-            String motherName = recipient.getMotherName();
-            String reason = recipient.getReasonForTransfusion();
-            
-            // --- Get status data ---
-            String status = recipient.didReceiveUnit() ? "Received" : "Pending";
-            LocalDate date = recipient.getDateReceived();
-            String dateReceivedStr = (date != null) ? date.toString() : "---";
-            
-            // Create an array for the row data
-            Object[] rowData = {
-                id,
-                fullName,
-                bloodGroup,
-                status, 
-                dateReceivedStr, 
-                mobileNo,
-                email,
-                gender,
-                (dob != null ? dob.toString() : "N/A"),
-                city,
-                address,
-                fatherName,
-                motherName,
-                reason
-            };
-            
-            // Add the row to the table model
-            tableModel.addRow(rowData);
+        tableModel.setRecords(recipientList);
+    }
+
+    /**
+     * Shows the active recipients, followed by completed ones from the history archive.
+     * History rows are fetched page by page as they scroll into view.
+     * @param activeRecipients The recipients the model holds in memory.
+     * @param historyCount How many recipients are in the history.
+     * @param history Loads a page of the history.
+     */
+    public void displayRecipients(List<Recipient> activeRecipients, int historyCount,
+                                  RecordTableModel.PageLoader<Recipient> history) {
+        tableModel.setRecords(activeRecipients, historyCount, history);
+    }
+
+    /**
+     * Shows only the recipients matching the search text.
+     * @param matches The model's search results.
+     */
+    public void displaySearchResults(List<Recipient> matches) {
+        tableModel.setRecords(matches);
+    }
+
+    /**
+     * @param listener Called with the search text each time it is edited.
+     */
+    public void addSearchListener(Consumer<String> listener) {
+        searchBar.addSearchListener(listener);
+    }
+
+    public String getSearchText() {
+        return searchBar.getSearchText();
+    }
+
+    /**
+     * @return The table's model, so the controller can apply changes while the dialog is open.
+     */
+    public RecordTableModel<Recipient> getTableModel() {
+        return tableModel;
+    }
+
+    // Value for one cell, in the order of the column list
+    private static Object recipientValue(Recipient recipient, int column) {
+        switch (column) {
+            case 0: return recipient.getRecipientId();
+            case 1: return recipient.getFirstName() + " " + recipient.getLastName();
+            case 2: return recipient.getBloodGroup();
+            case 3: return recipient.didReceiveUnit() ? "Received" : "Pending";
+            case 4: {
+                LocalDate date = recipient.getDateReceived();
+                return (date != null) ? date.toString() : "---";
+            }
+            case 5: return recipient.getMobileNo();
+            case 6: return recipient.getEmail();
+            case 7: return recipient.getGender();
+            case 8: {
+                LocalDate dob = recipient.getDob();
+                return (dob != null ? dob.toString() : "N/A");
+            }
+            case 9: return recipient.getCity();
+            case 10: return recipient.getFullAddress();
+            case 11: return recipient.getFatherName();
+            case 12: return recipient.getMotherName();
+            case 13: return recipient.getReasonForTransfusion();
+            default: return null;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,252 @@
+// File: src/com/bloodBank/view/RecordTableModel.java
+package com.bloodBank.view;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Table model that shows records straight from the list it is given, without
+ * copying them into row arrays. The active records come first; archived history
+ * follows and is fetched a page at a time, only when those rows are painted.
+ *
+ * Subclasses say which value goes in each column.
+ *
+ * While the table is open, changes to the active records can be applied one row at a
+ * time (recordsAdded, recordChanged, recordRemoved) instead of reloading everything.
+ */
+public abstract class RecordTableModel<T> extends AbstractTableModel {
+
+    /**
+     * Fetches a page of history records. onLoaded must be called on the Event Dispatch Thread.
+     */
+    public interface PageLoader<T> {
+        void loadPage(int from, int count, Consumer<List<T>> onLoaded);
+    }
+
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 16; // Only the pages near the viewport stay in memory
+    private static final String LOADING = "Loading...";
+
+    private final String[] columnNames;
+    private List<T> active = Collections.emptyList();
+    private boolean ownsActive; // active is this table's own copy and may be edited
+    private HashMap<Integer, Integer> rowById; // Active row of each ID; built on the first change, dropped on removal
+    private int historyCount;
+    private PageLoader<T> history;
+    private int generation; // Pages requested for an older setRecords are ignored
+
+    // History pages by page number, least recently used first
+    private final LinkedHashMap<Integer, List<T>> pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private final Set<Integer> requested = new HashSet<>();
+
+    protected RecordTableModel(String[] columnNames) {
+        this.columnNames = columnNames;
+    }
+
+    /**
+     * @return The value shown for the record in the column.
+     */
+    protected abstract Object valueAt(T record, int column);
+
+    /**
+     * @return The record's ID, used to find its row when it changes.
+     */
+    protected abstract int idOf(T record);
+
+    /**
+     * Shows the given records only (no history).
+     */
+    public void setRecords(List<T> records) {
+        setRecords(records, 0, null);
+    }
+
+    /**
+     * Shows the active records followed by historyCount archived records fetched through history.
+     * The list is read in place, never changed: it can be one of the model's read-only snapshots.
+     * Only the first row added or removed later makes the table copy it.
+     */
+    public void setRecords(List<T> active, int historyCount, PageLoader<T> history) {
+        this.active = active == null ? Collections.<T>emptyList() : active;
+        this.ownsActive = false;
+        this.rowById = null;
+        this.historyCount = history == null ? 0 : historyCount;
+        this.history = history;
+        this.generation++;
+        pages.clear();
+        requested.clear();
+        fireTableDataChanged();
+    }
+
+    /**
+     * @return The record shown in the row, or null while its history page is still loading.
+     */
+    public T getRecordAt(int row) {
+        if (row < active.size()) {
+            return active.get(row);
+        }
+        int historyRow = row - active.size();
+        int page = historyRow / PAGE_SIZE;
+        List<T> records = pages.get(page);
+        if (records == null) {
+            requestPage(page);
+            return null;
+        }
+        int offset = historyRow % PAGE_SIZE;
+        return offset < records.size() ? records.get(offset) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return active.size() + historyCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // All cells non-editable
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        T record = getRecordAt(row);
+        if (record == null) {
+            return column == 0 ? LOADING : "";
+        }
+        return valueAt(record, column);
+    }
+
+    // --- Changes ---
+    // Each is safe to repeat: adding a record the table already shows updates its row, and
+    // changes to records it does not show (e.g. archived ones) are ignored.
+
+    /**
+     * Appends the new records after the active ones (before the history) with one insert event.
+     */
+    public void recordsAdded(List<T> records) {
+        int first = active.size();
+        for (T record : records) {
+            int id = idOf(record);
+            int row = activeRow(id);
+            if (row >= 0) {
+                replaceRow(row, record);
+                continue;
+            }
+            editableActive().add(record);
+            row = active.size() - 1;
+            rowById.put(id, row);
+            rowInserted(row, record);
+        }
+        if (active.size() > first) {
+            fireTableRowsInserted(first, active.size() - 1);
+        }
+    }
+
+    /**
+     * Repaints the record's row (its values are read again from the record).
+     */
+    public void recordChanged(T record) {
+        int row = activeRow(idOf(record));
+        if (row >= 0) {
+            replaceRow(row, record);
+        }
+    }
+
+    public void recordRemoved(int id) {
+        int row = activeRow(id);
+        if (row < 0) {
+            return;
+        }
+        editableActive().remove(row);
+        rowById = null; // The rows after it moved up
+        rowRemoved(row);
+        fireTableRowsDeleted(row, row);
+    }
+
+    /**
+     * Called when an active row is added by recordsAdded, before the table is told.
+     */
+    protected void rowInserted(int row, T record) {
+    }
+
+    /**
+     * Called when an active row's record changed, before the table is told.
+     */
+    protected void rowUpdated(int row, T record) {
+    }
+
+    /**
+     * Called when an active row is removed, before the table is told.
+     */
+    protected void rowRemoved(int row) {
+    }
+
+    private void replaceRow(int row, T record) {
+        if (active.get(row) != record) {
+            editableActive().set(row, record);
+        }
+        rowUpdated(row, record);
+        fireTableRowsUpdated(row, row);
+    }
+
+    // Copy-on-write: the list passed to setRecords is copied on the first edit only
+    private List<T> editableActive() {
+        if (!ownsActive) {
+            active = new ArrayList<>(active);
+            ownsActive = true;
+        }
+        return active;
+    }
+
+    // The active row showing the ID, or -1
+    private int activeRow(int id) {
+        if (rowById == null) {
+            rowById = new HashMap<>(active.size() * 2);
+            for (int row = 0; row < active.size(); row++) {
+                rowById.put(idOf(active.get(row)), row);
+            }
+        }
+        Integer row = rowById.get(id);
+        return row == null ? -1 : row;
+    }
+
+    private void requestPage(int page) {
+        if (!requested.add(page)) {
+            return; // Already on its way
+        }
+        int requestGeneration = generation;
+        history.loadPage(page * PAGE_SIZE, PAGE_SIZE, records -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            requested.remove(page);
+            pages.put(page, records);
+            int first = active.size() + page * PAGE_SIZE;
+            int last = Math.min(getRowCount(), first + PAGE_SIZE) - 1;
+            if (first <= last) {
+                fireTableRowsUpdated(first, last);
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+// File: src/com/bloodBank/view/components/SearchBar.java
+package com.bloodBank.view.components;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.Color;
+import java.awt.FlowLayout;
+import java.awt.Font;
+import java.util.function.Consumer;
+
+/**
+ * A "Search:" label and text field shown above the donor and recipient tables.
+ * Listeners get the trimmed text after every edit, for type-ahead filtering.
+ */
+public class SearchBar extends JPanel {
+
+    private final JTextField searchField;
+
+    public SearchBar(Color background) {
+        super(new FlowLayout(FlowLayout.LEFT, 10, 8));
+        setBackground(background);
+
+        searchField = new JTextField(30);
+        searchField.setFont(new Font("SansSerif", Font.PLAIN, 16));
+        searchField.setToolTipText("Name, city, email or mobile number");
+        JLabel searchLabel = new JLabel("Search:");
+        searchLabel.setFont(new Font("SansSerif", Font.BOLD, 16));
+
+        add(searchLabel);
+        add(searchField);
+    }
+
+    /**
+     * @param listener Called with the search text each time it is edited.
+     */
+    public void addSearchListener(Consumer<String> listener) {
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                listener.accept(getSearchText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                listener.accept(getSearchText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes only; the text is the same
+            }
+        });
+    }
+
+    public String getSearchText() {
+        return searchField.getText().trim();
+    }
+}
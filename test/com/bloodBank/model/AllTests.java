@@ -0,0 +1,18 @@
+// File: test/com/bloodBank/model/AllTests.java
+package com.bloodBank.model;
+
+/**
+ * Runs every model test; each test class can also be run on its own.
+ */
+public class AllTests {
+
+    public static void main(String[] args) {
+        DataJournalTest.runTests();
+        SnapshotFileTest.runTests();
+        IdAllocatorTest.runTests();
+        HistoryArchiveTest.runTests();
+        InventoryIndexTest.runTests();
+        BloodGroupsTest.runTests();
+        TestSupport.finish();
+    }
+}
@@ -0,0 +1,84 @@
+// File: test/com/bloodBank/model/BloodGroupsTest.java
+package com.bloodBank.model;
+
+import static com.bloodBank.model.TestSupport.check;
+import static com.bloodBank.model.TestSupport.checkEquals;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The red-cell compatibility masks, checked against the ABO/Rh antigen rule.
+ */
+public class BloodGroupsTest {
+
+    public static void main(String[] args) {
+        runTests();
+        TestSupport.finish();
+    }
+
+    static void runTests() {
+        TestSupport.run("compatibility follows the ABO/Rh antigen rule", dir -> followsAntigenRule());
+        TestSupport.run("recipient masks are the donor masks transposed", dir -> masksAreTransposed());
+        TestSupport.run("O- gives to everyone and AB+ takes from everyone", dir -> universalGroups());
+        TestSupport.run("group names are matched loosely and unknown ones rejected", dir -> parsesGroupNames());
+    }
+
+    static void followsAntigenRule() {
+        for (int donor = 0; donor < BloodGroups.COUNT; donor++) {
+            for (int recipient = 0; recipient < BloodGroups.COUNT; recipient++) {
+                String donorGroup = BloodGroups.ALL[donor];
+                String recipientGroup = BloodGroups.ALL[recipient];
+                // The recipient must already carry every antigen on the donor's cells
+                boolean expected = antigens(recipientGroup).containsAll(antigens(donorGroup));
+                checkEquals(expected, BloodGroups.canDonate(donor, recipient), donorGroup + " -> " + recipientGroup);
+            }
+        }
+    }
+
+    static void masksAreTransposed() {
+        for (int donor = 0; donor < BloodGroups.COUNT; donor++) {
+            for (int recipient = 0; recipient < BloodGroups.COUNT; recipient++) {
+                boolean canDonate = BloodGroups.canDonate(donor, recipient);
+                checkEquals(canDonate, (BloodGroups.donorsFor(recipient) & (1 << donor)) != 0,
+                        "donorsFor(" + BloodGroups.ALL[recipient] + ") has " + BloodGroups.ALL[donor]);
+                checkEquals(canDonate, (BloodGroups.recipientsOf(donor) & (1 << recipient)) != 0,
+                        "recipientsOf(" + BloodGroups.ALL[donor] + ") has " + BloodGroups.ALL[recipient]);
+            }
+        }
+    }
+
+    static void universalGroups() {
+        int all = (1 << BloodGroups.COUNT) - 1;
+        checkEquals(all, BloodGroups.recipientsOf(BloodGroups.indexOf("O-")), "recipients of O-");
+        checkEquals(all, BloodGroups.donorsFor(BloodGroups.indexOf("AB+")), "donors for AB+");
+        checkEquals(1 << BloodGroups.indexOf("O-"), BloodGroups.donorsFor(BloodGroups.indexOf("O-")), "donors for O-");
+        checkEquals(1 << BloodGroups.indexOf("AB+"), BloodGroups.recipientsOf(BloodGroups.indexOf("AB+")),
+                "recipients of AB+");
+    }
+
+    static void parsesGroupNames() {
+        for (int i = 0; i < BloodGroups.COUNT; i++) {
+            checkEquals(i, BloodGroups.indexOf(BloodGroups.ALL[i]), "code of " + BloodGroups.ALL[i]);
+        }
+        checkEquals(BloodGroups.indexOf("AB-"), BloodGroups.indexOf(" ab- "), "code of a lower-case, padded name");
+        check(BloodGroups.indexOf("C+") < 0, "an unknown group is rejected");
+        check(BloodGroups.indexOf("") < 0, "an empty group is rejected");
+        check(BloodGroups.indexOf(null) < 0, "a missing group is rejected");
+    }
+
+    // --- Helpers ---
+
+    // The antigens on a group's red cells, e.g. "AB+" -> {A, B, D}
+    private static Set<Character> antigens(String group) {
+        Set<Character> antigens = new HashSet<>();
+        for (char c : group.toCharArray()) {
+            if (c == 'A' || c == 'B') {
+                antigens.add(c);
+            } else if (c == '+') {
+                antigens.add('D');
+            }
+        }
+        return antigens;
+    }
+}
@@ -0,0 +1,173 @@
+// File: test/com/bloodBank/model/DataJournalTest.java
+package com.bloodBank.model;
+
+import static com.bloodBank.model.TestSupport.check;
+import static com.bloodBank.model.TestSupport.checkEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Replay of the change journal, including after a crash left a torn or damaged record.
+ */
+public class DataJournalTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    public static void main(String[] args) {
+        runTests();
+        TestSupport.finish();
+    }
+
+    static void runTests() {
+        TestSupport.run("journal replays every record type in order", DataJournalTest::replaysEveryRecordType);
+        TestSupport.run("journal drops a torn tail and appends after it", DataJournalTest::dropsTornTail);
+        TestSupport.run("journal stops replay at a damaged record", DataJournalTest::stopsAtDamagedRecord);
+        TestSupport.run("journal replays the previous file after a rotation", DataJournalTest::replaysPreviousFile);
+    }
+
+    static void replaysEveryRecordType(Path dir) throws Exception {
+        DataJournal journal = open(dir, new Recorder());
+        journal.donorAdded(donor(1, "Ravi"));
+        journal.unitAdded(unit(10, 1));
+        journal.recipientAdded(recipient(5, "Anita"));
+        journal.unitStatusChanged(10, BloodStatus.ISSUED, 5);
+        journal.recipientReceived(5, DAY);
+        journal.recipientDeleted(5);
+        journal.donorDeleted(1);
+        journal.close();
+
+        Recorder replayed = new Recorder();
+        open(dir, replayed).close();
+        checkEquals(Arrays.asList("donorAdded 1 Ravi", "unitAdded 10 donor 1 O+ IN_STOCK",
+                "recipientAdded 5 Anita", "unitStatusChanged 10 ISSUED 5", "recipientReceived 5 " + DAY,
+                "recipientDeleted 5", "donorDeleted 1"), replayed.events, "replayed records");
+    }
+
+    static void dropsTornTail(Path dir) throws Exception {
+        DataJournal journal = open(dir, new Recorder());
+        journal.donorAdded(donor(1, "Ravi"));
+        journal.donorAdded(donor(2, "Rahul"));
+        journal.close();
+        Path file = dir.resolve("journal.log");
+        long intact = Files.size(file);
+        // A crash in the middle of a write: a length prefix and part of the record
+        Files.write(file, new byte[] { 0, 0, 0, 40, DataJournal.DONOR_DELETED, 0, 0 }, StandardOpenOption.APPEND);
+
+        Recorder replayed = new Recorder();
+        journal = open(dir, replayed);
+        checkEquals(2, replayed.events.size(), "records replayed before the torn tail");
+        checkEquals(intact, Files.size(file), "file length after dropping the tail");
+        journal.donorDeleted(2);
+        journal.close();
+
+        replayed = new Recorder();
+        open(dir, replayed).close();
+        checkEquals(Arrays.asList("donorAdded 1 Ravi", "donorAdded 2 Rahul", "donorDeleted 2"),
+                replayed.events, "records after appending past the torn tail");
+    }
+
+    static void stopsAtDamagedRecord(Path dir) throws Exception {
+        DataJournal journal = open(dir, new Recorder());
+        journal.donorDeleted(1);
+        journal.donorDeleted(2);
+        journal.donorDeleted(3);
+        journal.close();
+        Path file = dir.resolve("journal.log");
+        byte[] data = Files.readAllBytes(file);
+        int recordSize = data.length / 3;
+        data[recordSize + 6] ^= 0x01; // A bit flip inside the second record's payload
+        Files.write(file, data);
+
+        Recorder replayed = new Recorder();
+        open(dir, replayed).close();
+        checkEquals(Arrays.asList("donorDeleted 1"), replayed.events, "records before the damage");
+    }
+
+    static void replaysPreviousFile(Path dir) throws Exception {
+        DataJournal journal = open(dir, new Recorder());
+        journal.donorDeleted(1);
+        journal.rotate();
+        journal.donorDeleted(2);
+        checkEquals(1, journal.getRecordCount(), "records since the rotation");
+        journal.close();
+        check(Files.exists(dir.resolve("journal.prev.log")), "the rotated file is kept");
+
+        Recorder replayed = new Recorder();
+        journal = open(dir, replayed);
+        checkEquals(Arrays.asList("donorDeleted 1", "donorDeleted 2"), replayed.events, "both files replayed");
+        checkEquals(1, journal.getRecordCount(), "only the current file counts towards a checkpoint");
+        journal.close();
+    }
+
+    // --- Helpers ---
+
+    private static DataJournal open(Path dir, Recorder recorder) throws Exception {
+        return DataJournal.open(dir.resolve("journal.log").toString(),
+                dir.resolve("journal.prev.log").toString(), recorder);
+    }
+
+    static Donor donor(int id, String firstName) {
+        Donor donor = new Donor(firstName, "Kumar", "Father", "Mother", LocalDate.of(1990, 1, 1),
+                "9810000000", "M", "donor@example.com", "O+", "Delhi", "Address");
+        donor.assignId(id);
+        return donor;
+    }
+
+    static Recipient recipient(int id, String firstName) {
+        Recipient recipient = new Recipient(firstName, "Sharma", "Father", "Mother", LocalDate.of(1985, 5, 5),
+                "9820000000", "F", "recipient@example.com", "A+", "Pune", "Address", "Surgery");
+        recipient.assignId(id);
+        return recipient;
+    }
+
+    static BloodUnit unit(int id, int donorId) {
+        return new BloodUnit(id, donorId, "O+", DAY, DAY.plusDays(42), BloodStatus.IN_STOCK, null);
+    }
+
+    /** Writes down each replayed change, so a test can compare them as text. */
+    private static final class Recorder implements DataJournal.Replayer {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void donorAdded(Donor donor) {
+            events.add("donorAdded " + donor.getDonorId() + " " + donor.getFirstName());
+        }
+
+        @Override
+        public void donorDeleted(int donorId) {
+            events.add("donorDeleted " + donorId);
+        }
+
+        @Override
+        public void unitAdded(BloodUnit unit) {
+            events.add("unitAdded " + unit.getUnitId() + " donor " + unit.getDonorId() + " "
+                    + unit.getBloodGroup() + " " + unit.getStatus());
+        }
+
+        @Override
+        public void unitStatusChanged(int unitId, BloodStatus status, Integer recipientId) {
+            events.add("unitStatusChanged " + unitId + " " + status + " " + recipientId);
+        }
+
+        @Override
+        public void recipientAdded(Recipient recipient) {
+            events.add("recipientAdded " + recipient.getRecipientId() + " " + recipient.getFirstName());
+        }
+
+        @Override
+        public void recipientReceived(int recipientId, LocalDate dateReceived) {
+            events.add("recipientReceived " + recipientId + " " + dateReceived);
+        }
+
+        @Override
+        public void recipientDeleted(int recipientId) {
+            events.add("recipientDeleted " + recipientId);
+        }
+    }
+}
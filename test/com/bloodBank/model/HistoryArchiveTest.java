@@ -0,0 +1,137 @@
+// File: test/com/bloodBank/model/HistoryArchiveTest.java
+package com.bloodBank.model;
+
+import static com.bloodBank.model.TestSupport.check;
+import static com.bloodBank.model.TestSupport.checkEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Archived records, their tombstones and the archive's recovery from a torn append.
+ */
+public class HistoryArchiveTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    public static void main(String[] args) {
+        runTests();
+        TestSupport.finish();
+    }
+
+    static void runTests() {
+        TestSupport.run("archive reads records back in pages after reopening", HistoryArchiveTest::readsPagesAfterReopen);
+        TestSupport.run("archive tombstones survive reopening", HistoryArchiveTest::tombstonesSurviveReopen);
+        TestSupport.run("archive removes every record of an owner", HistoryArchiveTest::removesByOwner);
+        TestSupport.run("archive keeps the newest copy of a record", HistoryArchiveTest::keepsNewestCopy);
+        TestSupport.run("archive drops a torn append", HistoryArchiveTest::dropsTornAppend);
+    }
+
+    static void readsPagesAfterReopen(Path dir) throws Exception {
+        HistoryArchive<BloodUnit> archive = open(dir);
+        archive.append(Arrays.asList(unit(1, 10), unit(2, 10), unit(3, 11)));
+        archive.append(Arrays.asList(unit(4, 12)));
+        archive.close();
+
+        archive = open(dir);
+        checkEquals(4, archive.size(), "records after reopening");
+        checkEquals(Arrays.asList(1, 2, 3, 4), ids(archive.read(0, 10)), "all records");
+        checkEquals(Arrays.asList(2, 3), ids(archive.read(1, 2)), "a page");
+        checkEquals(Arrays.asList(), ids(archive.read(4, 2)), "a page past the end");
+        BloodUnit read = archive.read(2, 1).get(0);
+        checkEquals(11, read.getDonorId(), "donor of a read record");
+        checkEquals(BloodStatus.ISSUED, read.getStatus(), "status of a read record");
+        checkEquals(DAY.plusDays(42), read.getExpiryDate(), "expiry of a read record");
+        archive.close();
+    }
+
+    static void tombstonesSurviveReopen(Path dir) throws Exception {
+        HistoryArchive<BloodUnit> archive = open(dir);
+        archive.append(Arrays.asList(unit(1, 10), unit(2, 10), unit(3, 11)));
+        check(archive.remove(2), "an archived record is removed");
+        check(!archive.remove(2), "a removed record is not removed twice");
+        check(!archive.remove(99), "an unknown record is not removed");
+        archive.close();
+
+        archive = open(dir);
+        checkEquals(Arrays.asList(1, 3), ids(archive.read(0, 10)), "records after reopening");
+        check(!archive.contains(2), "the removed record stays removed");
+        checkEquals(3, archive.maxId(), "the highest ID counts removed records");
+        archive.close();
+    }
+
+    static void removesByOwner(Path dir) throws Exception {
+        HistoryArchive<BloodUnit> archive = open(dir);
+        archive.append(Arrays.asList(unit(1, 10), unit(2, 11), unit(3, 10), unit(4, 10)));
+        archive.remove(3);
+        checkEquals(2, archive.removeOwnedBy(10), "records removed for the owner");
+        checkEquals(0, archive.removeOwnedBy(10), "records removed the second time");
+        checkEquals(0, archive.removeOwnedBy(42), "records removed for an unknown owner");
+        archive.close();
+
+        archive = open(dir);
+        checkEquals(Arrays.asList(2), ids(archive.read(0, 10)), "records after reopening");
+        archive.append(Arrays.asList(unit(5, 10)));
+        checkEquals(1, archive.removeOwnedBy(10), "records of the owner archived after reopening");
+        archive.close();
+    }
+
+    static void keepsNewestCopy(Path dir) throws Exception {
+        HistoryArchive<BloodUnit> archive = open(dir);
+        archive.append(Arrays.asList(unit(1, 10), unit(2, 10)));
+        archive.append(Arrays.asList(unit(1, 11)));
+        archive.close();
+
+        archive = open(dir);
+        checkEquals(Arrays.asList(2, 1), ids(archive.read(0, 10)), "records after reopening");
+        checkEquals(11, archive.read(1, 1).get(0).getDonorId(), "donor of the newest copy");
+        checkEquals(1, archive.removeOwnedBy(10), "records left for the old owner");
+        archive.close();
+    }
+
+    static void dropsTornAppend(Path dir) throws Exception {
+        HistoryArchive<BloodUnit> archive = open(dir);
+        archive.append(Arrays.asList(unit(1, 10)));
+        archive.close();
+        Path file = dir.resolve("units.history");
+        long intact = Files.size(file);
+        // A crash in the middle of an append: an entry header and part of its record
+        Files.write(file, new byte[] { 1, 0, 0, 0, 2, 0, 0, 0, 10, 0, 0, 0, 50, 7, 7 }, StandardOpenOption.APPEND);
+
+        archive = open(dir);
+        checkEquals(intact, Files.size(file), "file length after dropping the tail");
+        checkEquals(Arrays.asList(1), ids(archive.read(0, 10)), "records before the torn append");
+        archive.append(Arrays.asList(unit(2, 10)));
+        archive.close();
+
+        archive = open(dir);
+        checkEquals(Arrays.asList(1, 2), ids(archive.read(0, 10)), "records after appending past the tail");
+        archive.close();
+    }
+
+    // --- Helpers ---
+
+    private static HistoryArchive<BloodUnit> open(Path dir) throws Exception {
+        HistoryArchive<BloodUnit> archive = new HistoryArchive<>(dir.resolve("units.history").toString(),
+                RecordCodec.UNIT, BloodUnit::getUnitId, BloodUnit::getDonorId);
+        archive.open();
+        return archive;
+    }
+
+    private static BloodUnit unit(int id, int donorId) {
+        return new BloodUnit(id, donorId, "B+", DAY, DAY.plusDays(42), BloodStatus.ISSUED, 7);
+    }
+
+    private static List<Integer> ids(List<BloodUnit> units) {
+        List<Integer> ids = new ArrayList<>();
+        for (BloodUnit unit : units) {
+            ids.add(unit.getUnitId());
+        }
+        return ids;
+    }
+}
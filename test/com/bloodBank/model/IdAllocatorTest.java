@@ -0,0 +1,101 @@
+// File: test/com/bloodBank/model/IdAllocatorTest.java
+package com.bloodBank.model;
+
+import static com.bloodBank.model.TestSupport.check;
+import static com.bloodBank.model.TestSupport.checkEquals;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * IDs are never handed out twice, whether the allocator was closed cleanly or not.
+ */
+public class IdAllocatorTest {
+
+    private static final int[] NO_FLOOR = { 1, 1, 1 };
+
+    public static void main(String[] args) {
+        runTests();
+        TestSupport.finish();
+    }
+
+    static void runTests() {
+        TestSupport.run("IDs continue without a gap after a clean close", IdAllocatorTest::continuesAfterClose);
+        TestSupport.run("IDs skip the reserved block after a crash", IdAllocatorTest::skipsBlockAfterCrash);
+        TestSupport.run("ranges and imported IDs are reserved before use", IdAllocatorTest::reservesRangesAndImports);
+        TestSupport.run("the floor from loaded data wins over the file", IdAllocatorTest::floorWins);
+        TestSupport.run("concurrent callers get distinct IDs", IdAllocatorTest::concurrentIdsAreDistinct);
+    }
+
+    static void continuesAfterClose(Path dir) throws Exception {
+        String file = dir.resolve("ids.dat").toString();
+        IdAllocator ids = IdAllocator.open(file, NO_FLOOR);
+        checkEquals(1, ids.next(IdAllocator.DONOR), "first donor ID");
+        checkEquals(2, ids.next(IdAllocator.DONOR), "second donor ID");
+        checkEquals(1, ids.next(IdAllocator.UNIT), "unit IDs are counted separately");
+        ids.close();
+
+        ids = IdAllocator.open(file, NO_FLOOR);
+        checkEquals(3, ids.next(IdAllocator.DONOR), "donor ID after reopening");
+        checkEquals(2, ids.next(IdAllocator.UNIT), "unit ID after reopening");
+        checkEquals(1, ids.next(IdAllocator.RECIPIENT), "recipient ID after reopening");
+    }
+
+    static void skipsBlockAfterCrash(Path dir) throws Exception {
+        String file = dir.resolve("ids.dat").toString();
+        IdAllocator ids = IdAllocator.open(file, NO_FLOOR);
+        int last = 0;
+        for (int i = 0; i < 150; i++) { // Crosses into a second reserved block
+            last = ids.next(IdAllocator.DONOR);
+        }
+        // No close(): the process died here
+
+        int afterCrash = IdAllocator.open(file, NO_FLOOR).next(IdAllocator.DONOR);
+        check(afterCrash > last, "ID " + afterCrash + " after the crash is above the last one handed out, " + last);
+    }
+
+    static void reservesRangesAndImports(Path dir) throws Exception {
+        String file = dir.resolve("ids.dat").toString();
+        IdAllocator ids = IdAllocator.open(file, NO_FLOOR);
+        int first = ids.nextRange(IdAllocator.UNIT, 250);
+        ids.advancePast(IdAllocator.RECIPIENT, 700);
+        checkEquals(first + 250, ids.next(IdAllocator.UNIT), "unit ID after the range");
+        checkEquals(701, ids.next(IdAllocator.RECIPIENT), "recipient ID after an imported one");
+
+        IdAllocator afterCrash = IdAllocator.open(file, NO_FLOOR);
+        check(afterCrash.next(IdAllocator.UNIT) > first + 250, "the range stays used after a crash");
+        check(afterCrash.next(IdAllocator.RECIPIENT) > 701, "the imported ID stays used after a crash");
+    }
+
+    static void floorWins(Path dir) throws Exception {
+        String file = dir.resolve("ids.dat").toString();
+        IdAllocator ids = IdAllocator.open(file, NO_FLOOR);
+        ids.next(IdAllocator.DONOR);
+        ids.close();
+
+        // e.g. ids.dat fell back to an older generation than the data files
+        ids = IdAllocator.open(file, new int[] { 40, 1, 1 });
+        checkEquals(40, ids.next(IdAllocator.DONOR), "donor ID above the loaded data");
+        checkEquals(1, ids.next(IdAllocator.RECIPIENT), "recipient ID from the file");
+    }
+
+    static void concurrentIdsAreDistinct(Path dir) throws Exception {
+        IdAllocator ids = IdAllocator.open(dir.resolve("ids.dat").toString(), NO_FLOOR);
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    seen.add(ids.next(IdAllocator.UNIT));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        checkEquals(4000, seen.size(), "distinct IDs");
+        checkEquals(4001, ids.next(IdAllocator.UNIT), "next ID after the threads");
+    }
+}
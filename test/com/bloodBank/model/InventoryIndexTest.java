@@ -0,0 +1,133 @@
+// File: test/com/bloodBank/model/InventoryIndexTest.java
+package com.bloodBank.model;
+
+import static com.bloodBank.model.TestSupport.checkEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The order in which each allocation policy issues in-stock units, and the expiry lookups.
+ */
+public class InventoryIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+    private static final int A_POS = BloodGroups.indexOf("A+");
+    private static final int O_NEG = BloodGroups.indexOf("O-");
+
+    public static void main(String[] args) {
+        runTests();
+        TestSupport.finish();
+    }
+
+    static void runTests() {
+        TestSupport.run("FEFO issues the earliest expiry first", dir -> fefoOrder());
+        TestSupport.run("FIFO issues the earliest donation first", dir -> fifoOrder());
+        TestSupport.run("reorder re-sorts the stock for a new policy", dir -> reorderResorts());
+        TestSupport.run("only in-stock units of known groups are indexed", dir -> indexesInStockOnly());
+        TestSupport.run("expired and expiring units are found by day", dir -> findsByExpiryDay());
+    }
+
+    static void fefoOrder() {
+        InventoryIndex index = new InventoryIndex(AllocationPolicy.FEFO);
+        // id, donated, expires (days after DAY)
+        index.add(unit(1, "A+", 0, 30));
+        index.add(unit(2, "A+", 5, 10));
+        index.add(unit(3, "A+", 9, 20));
+        index.add(unit(4, "A+", 2, 10)); // Same expiry as unit 2: the lower ID goes first
+        checkEquals(Arrays.asList(2, 4, 3, 1), drain(index, A_POS), "FEFO issue order");
+    }
+
+    static void fifoOrder() {
+        InventoryIndex index = new InventoryIndex(AllocationPolicy.FIFO);
+        index.add(unit(1, "A+", 3, 30));
+        index.add(unit(2, "A+", 1, 10));
+        index.add(unit(3, "A+", 1, 20));
+        index.add(unit(4, "A+", 0, 40));
+        checkEquals(Arrays.asList(4, 2, 3, 1), drain(index, A_POS), "FIFO issue order");
+    }
+
+    static void reorderResorts() {
+        InventoryIndex index = new InventoryIndex(AllocationPolicy.FEFO);
+        index.add(unit(1, "A+", 0, 30));
+        index.add(unit(2, "A+", 5, 10));
+        index.add(unit(3, "O-", 0, 10));
+        index.reorder(AllocationPolicy.FIFO);
+        checkEquals(1, index.peekFirst(A_POS).getUnitId(), "first unit after switching to FIFO");
+        checkEquals(2, index.count(A_POS), "count after reordering");
+        index.reorder(AllocationPolicy.FEFO);
+        checkEquals(Arrays.asList(2, 1), drain(index, A_POS), "order after switching back to FEFO");
+        checkEquals(Arrays.asList(3), drain(index, O_NEG), "other group");
+    }
+
+    static void indexesInStockOnly() {
+        InventoryIndex index = new InventoryIndex(AllocationPolicy.FEFO);
+        BloodUnit inStock = unit(1, "A+", 0, 10);
+        index.add(inStock);
+        index.add(inStock); // Adding twice does not count twice
+        index.add(new BloodUnit(2, 1, "A+", DAY, DAY.plusDays(10), BloodStatus.ISSUED, 9));
+        index.add(new BloodUnit(3, 1, "A+", DAY, DAY.plusDays(10), BloodStatus.EXPIRED, null));
+        index.add(unit(4, "Z+", 0, 10));
+        index.add(unit(5, " o- ", 0, 10)); // Group names are matched like BloodGroups.indexOf
+        int[] counts = new int[BloodGroups.COUNT];
+        index.copyCounts(counts);
+        checkEquals(1, counts[A_POS], "A+ count");
+        checkEquals(1, counts[O_NEG], "O- count");
+
+        index.remove(inStock);
+        index.remove(inStock);
+        checkEquals(0, index.count(A_POS), "A+ count after removing");
+        checkEquals(null, index.pollFirst(A_POS), "unit issued from an empty group");
+    }
+
+    static void findsByExpiryDay() {
+        InventoryIndex index = new InventoryIndex(AllocationPolicy.FEFO);
+        index.add(unit(1, "A+", 0, 1));
+        index.add(unit(2, "A+", 0, 3));
+        index.add(unit(3, "A+", 0, 3));
+        index.add(unit(4, "A+", 0, 8));
+        index.add(unit(5, "O-", 0, 1));
+        long today = DAY.plusDays(4).toEpochDay();
+
+        List<BloodUnit> expired = new ArrayList<>();
+        index.addExpired(A_POS, today, expired);
+        checkEquals(Arrays.asList(1, 2, 3), sortedIds(expired), "expired A+ units");
+        checkEquals(4, index.count(A_POS), "expired units stay until removed");
+
+        List<BloodUnit> expiring = new ArrayList<>();
+        index.addExpiringBetween(A_POS, DAY.plusDays(3).toEpochDay(), DAY.plusDays(8).toEpochDay(), expiring);
+        checkEquals(Arrays.asList(2, 3, 4), sortedIds(expiring), "A+ units expiring in the range");
+
+        index.pollFirst(A_POS);
+        expired.clear();
+        index.addExpired(A_POS, today, expired);
+        checkEquals(Arrays.asList(2, 3), sortedIds(expired), "expired A+ units after issuing one");
+    }
+
+    // --- Helpers ---
+
+    private static BloodUnit unit(int id, String group, int donatedDay, int expiryDay) {
+        return new BloodUnit(id, 1, group, DAY.plusDays(donatedDay), DAY.plusDays(expiryDay), BloodStatus.IN_STOCK, null);
+    }
+
+    private static List<Integer> drain(InventoryIndex index, int group) {
+        List<Integer> ids = new ArrayList<>();
+        for (BloodUnit unit = index.pollFirst(group); unit != null; unit = index.pollFirst(group)) {
+            ids.add(unit.getUnitId());
+        }
+        checkEquals(0, index.count(group), "count after issuing every unit");
+        return ids;
+    }
+
+    private static List<Integer> sortedIds(List<BloodUnit> units) {
+        List<Integer> ids = new ArrayList<>();
+        for (BloodUnit unit : units) {
+            ids.add(unit.getUnitId());
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+}
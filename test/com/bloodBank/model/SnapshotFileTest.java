@@ -0,0 +1,93 @@
+// File: test/com/bloodBank/model/SnapshotFileTest.java
+package com.bloodBank.model;
+
+import static com.bloodBank.model.TestSupport.check;
+import static com.bloodBank.model.TestSupport.checkEquals;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Falling back to an older generation of a snapshot when the newest one is damaged or missing.
+ */
+public class SnapshotFileTest {
+
+    public static void main(String[] args) {
+        runTests();
+        TestSupport.finish();
+    }
+
+    static void runTests() {
+        TestSupport.run("snapshot keeps the replaced generation as .bak", SnapshotFileTest::keepsBackup);
+        TestSupport.run("snapshot falls back to .bak when the live file is damaged", SnapshotFileTest::fallsBackOnDamage);
+        TestSupport.run("snapshot recovers a complete .tmp after a crash between renames", SnapshotFileTest::recoversTemp);
+        TestSupport.run("snapshot skips a torn .tmp", SnapshotFileTest::skipsTornTemp);
+        TestSupport.run("snapshot reports missing and unreadable files", SnapshotFileTest::reportsMissingAndUnreadable);
+    }
+
+    static void keepsBackup(Path dir) throws Exception {
+        String file = dir.resolve("data.dat").toString();
+        write(file, "first");
+        write(file, "second");
+        checkEquals("second", read(file), "live generation");
+        checkEquals("first", read(file + ".bak"), "backup generation");
+        check(!Files.exists(dir.resolve("data.dat.tmp")), "no .tmp is left behind");
+    }
+
+    static void fallsBackOnDamage(Path dir) throws Exception {
+        String file = dir.resolve("data.dat").toString();
+        write(file, "first");
+        write(file, "second");
+        Path live = dir.resolve("data.dat");
+        byte[] data = Files.readAllBytes(live);
+        data[3] ^= 0x01; // Inside the payload, so only the checksum can tell
+        Files.write(live, data);
+        checkEquals("first", read(file), "generation read");
+    }
+
+    static void recoversTemp(Path dir) throws Exception {
+        String file = dir.resolve("data.dat").toString();
+        write(file, "first");
+        write(file, "second");
+        // The state after write() moved the old generation to .bak but before .tmp became live
+        Files.move(dir.resolve("data.dat"), dir.resolve("data.dat.tmp"));
+        checkEquals("second", read(file), "generation read");
+    }
+
+    static void skipsTornTemp(Path dir) throws Exception {
+        String file = dir.resolve("data.dat").toString();
+        write(file, "first");
+        Files.move(dir.resolve("data.dat"), dir.resolve("data.dat.bak"));
+        Files.write(dir.resolve("data.dat.tmp"), new byte[] { 0, 6, 's', 'e', 'c' }); // Cut off before the trailer
+        checkEquals("first", read(file), "generation read");
+    }
+
+    static void reportsMissingAndUnreadable(Path dir) throws Exception {
+        String file = dir.resolve("data.dat").toString();
+        checkEquals(null, read(file), "contents before the first write");
+        Files.write(dir.resolve("data.dat"), new byte[] { 1, 2, 3 });
+        try {
+            read(file);
+            throw new AssertionError("an unreadable snapshot was accepted");
+        } catch (IOException expected) {
+            check(expected.getMessage().contains("data.dat"), "the message names the file");
+        }
+    }
+
+    // --- Helpers ---
+
+    private static void write(String file, String text) throws IOException {
+        SnapshotFile.write(file, out -> {
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeUTF(text);
+            data.flush();
+        });
+    }
+
+    private static String read(String file) throws IOException {
+        return SnapshotFile.read(file, in -> new DataInputStream(in).readUTF());
+    }
+}
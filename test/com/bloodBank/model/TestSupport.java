@@ -0,0 +1,77 @@
+// File: test/com/bloodBank/model/TestSupport.java
+package com.bloodBank.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Assertions and scratch directories for the model tests. The tests need nothing but the JDK:
+ *   javac -d out $(find src test -name '*.java') && java -cp out com.bloodBank.model.AllTests
+ */
+final class TestSupport {
+
+    /** One test case; it gets an empty directory of its own for any files it writes. */
+    interface TestCase {
+        void run(Path dir) throws Exception;
+    }
+
+    private static int passed;
+    private static int failed;
+
+    private TestSupport() {
+    }
+
+    static void run(String name, TestCase test) {
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("bloodbank-test");
+            test.run(dir);
+            passed++;
+            System.out.println("PASS " + name);
+        } catch (Throwable e) {
+            failed++;
+            System.out.println("FAIL " + name + ": " + e);
+        } finally {
+            deleteQuietly(dir);
+        }
+    }
+
+    /**
+     * Prints the totals and exits with status 1 if any test failed.
+     */
+    static void finish() {
+        System.out.println(passed + " passed, " + failed + " failed.");
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    // --- Assertions ---
+
+    static void check(boolean condition, String what) {
+        if (!condition) {
+            throw new AssertionError(what);
+        }
+    }
+
+    static void checkEquals(Object expected, Object actual, String what) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError(what + ": expected <" + expected + "> but was <" + actual + ">");
+        }
+    }
+
+    // --- Helpers ---
+
+    private static void deleteQuietly(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            System.out.println("Could not delete " + dir + ": " + e.getMessage());
+        }
+    }
+}